@@ -0,0 +1,151 @@
+package ca.yarbond.bookclub.benchmark;
+
+import ca.yarbond.bookclub.util.OpenFileCache;
+import ca.yarbond.bookclub.util.RangeFileSender;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.UrlResource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two ways the application itself writes a book download to the servlet output
+ * stream: the old UrlResource stream copied by the message converter, and RangeFileSender's
+ * fallback (no Tomcat sendfile: bodies under 48 KiB, multipart ranges, TLS or NIO2 connectors),
+ * which runs FileChannel.transferTo on a cached channel into the stream. Both write through
+ * the same ServletOutputStream over a loopback connection drained by a background thread.
+ * Tomcat's sendfile path runs outside the application and isn't measured here.
+ * Scores are downloads per second; multiply by fileSize for bytes per second.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FileTransferBenchmark {
+
+    @Param({"32768", "1048576", "16777216"})
+    private int fileSize;
+
+    private Path file;
+    private long lastModified;
+    private ServerSocketChannel server;
+    private SocketChannel client;
+    private ServletOutputStream servletOut;
+    private Thread drainer;
+    private OpenFileCache openFileCache;
+    private RangeFileSender rangeFileSender;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("bookclub-benchmark", ".epub");
+        byte[] content = new byte[fileSize];
+        new Random(42).nextBytes(content);
+        Files.write(file, content);
+        lastModified = Files.getLastModifiedTime(file).toMillis();
+
+        openFileCache = new OpenFileCache(32);
+        rangeFileSender = new RangeFileSender(openFileCache);
+
+        server = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        client = SocketChannel.open(server.getLocalAddress());
+        servletOut = new SocketServletOutputStream(Channels.newOutputStream(client));
+        SocketChannel accepted = server.accept();
+        drainer = new Thread(() -> drain(accepted), "benchmark-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, InterruptedException {
+        client.close();
+        drainer.join(TimeUnit.SECONDS.toMillis(5));
+        server.close();
+        openFileCache.closeAll();
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * What FileController did before range support: a UrlResource stream copied to the response
+     * by ResourceHttpMessageConverter
+     */
+    @Benchmark
+    public int urlResourceStream() throws IOException {
+        try (InputStream in = new UrlResource(file.toUri()).getInputStream()) {
+            return StreamUtils.copy(in, servletOut);
+        }
+    }
+
+    /**
+     * The whole file through RangeFileSender on a request without sendfile support
+     */
+    @Benchmark
+    public int rangeFileSenderFallback() throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/files/books/1/epub");
+        MockHttpServletResponse response = new MockHttpServletResponse() {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                return servletOut;
+            }
+        };
+        rangeFileSender.send(request, response, new RangeFileSender.FileInfo(
+                file, fileSize, lastModified, "\"benchmark\"", "application/epub+zip", null));
+        return response.getStatus();
+    }
+
+    private static void drain(SocketChannel channel) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(256 * 1024);
+        try (channel) {
+            while (channel.read(buffer) >= 0) {
+                buffer.clear();
+            }
+        } catch (IOException e) {
+            // Client side closed
+        }
+    }
+
+    /**
+     * Blocking servlet stream over the loopback connection, standing in for the connector's stream
+     */
+    private static final class SocketServletOutputStream extends ServletOutputStream {
+        private final OutputStream out;
+
+        private SocketServletOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ca.yarbond.bookclub.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Worker pool for background jobs. Bounded in threads and queue: jobs that don't fit stay
+ * pending in the database until the dispatcher finds room for them.
+ */
+@Configuration
+public class BackgroundJobConfig {
+
+    public static final String EXECUTOR = "backgroundJobExecutor";
+
+    @Value("${app.jobs.workers:2}")
+    private int workers;
+
+    @Value("${app.jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Bean(name = EXECUTOR)
+    public ThreadPoolTaskExecutor backgroundJobExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("job-");
+        // Unfinished jobs are requeued on the next start, but let short ones finish
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -0,0 +1,87 @@
+package ca.yarbond.bookclub.config;
+
+import ca.yarbond.bookclub.model.Book;
+import ca.yarbond.bookclub.model.Member;
+import ca.yarbond.bookclub.model.MemberQueueItem;
+import ca.yarbond.bookclub.model.MemberQueueState;
+import ca.yarbond.bookclub.model.Rating;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Bounded local caches behind Hibernate's second-level and query cache.
+ * Every region gets a maximum size and an expiry, except the update timestamps region,
+ * which Hibernate needs complete to tell whether a cached query result is still valid.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    // Hibernate's default region names for query results and table update timestamps
+    static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    static final List<Class<?>> CACHED_ENTITIES = List.of(
+            Member.class, Book.class, MemberQueueItem.class, MemberQueueState.class, Rating.class);
+
+    @Value("${app.cache.entity-max-size:10000}")
+    private long entityMaxSize;
+
+    @Value("${app.cache.entity-ttl:PT1H}")
+    private Duration entityTtl;
+
+    @Value("${app.cache.query-max-size:1000}")
+    private long queryMaxSize;
+
+    @Value("${app.cache.query-ttl:PT10M}")
+    private Duration queryTtl;
+
+    /**
+     * A cache manager of this application context's own. The provider's default manager is shared
+     * by the whole JVM, so a second context (e.g. another test configuration) would find the
+     * regions already created there.
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("bookclub-hibernate:" + UUID.randomUUID()),
+                        HibernateCacheConfig.class.getClassLoader());
+
+        for (Class<?> entity : CACHED_ENTITIES) {
+            cacheManager.createCache(entity.getName(), regionConfiguration(entityMaxSize, entityTtl));
+        }
+        cacheManager.createCache(QUERY_RESULTS_REGION, regionConfiguration(queryMaxSize, queryTtl));
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, regionConfiguration(null, null));
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private CaffeineConfiguration<Object, Object> regionConfiguration(Long maxSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStatisticsEnabled(true);
+        if (maxSize != null) {
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+        }
+        if (ttl != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        return configuration;
+    }
+}
@@ -0,0 +1,68 @@
+package ca.yarbond.bookclub.config;
+
+import ca.yarbond.bookclub.repository.BookFileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.regex.Pattern;
+
+/**
+ * Deletes book files left under their old flat title-author-suffix names once no book refers to
+ * them any more. V11 copies them into the content-addressed layout but leaves the originals, so
+ * they are only removed after its changes have been committed.
+ */
+@Component
+public class LegacyBookFileCleanup implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LegacyBookFileCleanup.class);
+
+    // Names the upload code used before content addressing: anything-xxxx.ext with a random hex suffix
+    private static final Pattern LEGACY_NAME = Pattern.compile(".+-[0-9a-f]{4}\\.(epub|pdf|mobi)");
+
+    private final Path booksStorageLocation;
+    private final BookFileRepository bookFileRepository;
+
+    @Autowired
+    public LegacyBookFileCleanup(
+            @Value("${app.storage.books-location}") String booksStorageLocation,
+            BookFileRepository bookFileRepository) {
+        this.booksStorageLocation = Paths.get(booksStorageLocation).toAbsolutePath().normalize();
+        this.bookFileRepository = bookFileRepository;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (!Files.isDirectory(booksStorageLocation)) {
+            return;
+        }
+
+        // Content-addressed files live in shard directories, so only the top level is looked at
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(booksStorageLocation,
+                path -> Files.isRegularFile(path) && LEGACY_NAME.matcher(path.getFileName().toString()).matches())) {
+            for (Path file : files) {
+                // Rows whose file was missing during V11 keep the old name
+                if (bookFileRepository.existsByStoredName(file.getFileName().toString())) {
+                    continue;
+                }
+                Files.deleteIfExists(file);
+                deleted++;
+            }
+        } catch (IOException e) {
+            logger.warn("Could not clean up old book files in {}", booksStorageLocation, e);
+        }
+
+        if (deleted > 0) {
+            logger.info("Deleted {} book files left under their old names", deleted);
+        }
+    }
+}
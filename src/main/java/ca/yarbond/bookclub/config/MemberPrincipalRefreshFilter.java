@@ -0,0 +1,64 @@
+package ca.yarbond.bookclub.config;
+
+import ca.yarbond.bookclub.model.Member;
+import ca.yarbond.bookclub.service.MemberDirectory;
+import ca.yarbond.bookclub.service.MemberPrincipal;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Keeps the session's member principal in step with the member directory.
+ * When a member is renamed, toggled or has their role changed the principal is replaced,
+ * and a deleted member's session is logged out. The check is a map read, not a query.
+ */
+public class MemberPrincipalRefreshFilter extends OncePerRequestFilter {
+
+    private final MemberDirectory memberDirectory;
+    private final SecurityContextRepository securityContextRepository = new HttpSessionSecurityContextRepository();
+
+    public MemberPrincipalRefreshFilter(MemberDirectory memberDirectory) {
+        this.memberDirectory = memberDirectory;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        if (auth != null && auth.getPrincipal() instanceof MemberPrincipal principal) {
+            Optional<Member> member = memberDirectory.findById(principal.getMemberId());
+
+            if (member.isEmpty()) {
+                SecurityContext emptyContext = SecurityContextHolder.createEmptyContext();
+                SecurityContextHolder.setContext(emptyContext);
+                securityContextRepository.saveContext(emptyContext, request, response);
+            } else if (!principal.matches(member.get())) {
+                MemberPrincipal refreshed = MemberPrincipal.from(member.get());
+                refreshed.eraseCredentials();
+
+                UsernamePasswordAuthenticationToken token = UsernamePasswordAuthenticationToken.authenticated(
+                        refreshed, null, refreshed.getAuthorities());
+                token.setDetails(auth.getDetails());
+
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(token);
+                SecurityContextHolder.setContext(context);
+                securityContextRepository.saveContext(context, request, response);
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
@@ -4,6 +4,7 @@ import ca.yarbond.bookclub.model.Book;
 import ca.yarbond.bookclub.model.BookStatus;
 import ca.yarbond.bookclub.service.BookCompletionService;
 import ca.yarbond.bookclub.service.BookService;
+import ca.yarbond.bookclub.service.RatingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.annotation.Order;
@@ -21,24 +22,33 @@ public class MigrationRunner implements CommandLineRunner {
 
     private final BookService bookService;
     private final BookCompletionService bookCompletionService;
+    private final RatingService ratingService;
 
     @Autowired
-    public MigrationRunner(BookService bookService, BookCompletionService bookCompletionService) {
+    public MigrationRunner(BookService bookService, BookCompletionService bookCompletionService,
+                           RatingService ratingService) {
         this.bookService = bookService;
         this.bookCompletionService = bookCompletionService;
+        this.ratingService = ratingService;
     }
 
     @Override
     @Transactional
     public void run(String... args) throws Exception {
-        // Only run migration if specifically requested with --run-migration argument
+        // Only run migrations if specifically requested with --run-migration / --rebuild-rating-summaries
         boolean shouldRunMigration = false;
+        boolean shouldRebuildRatingSummaries = false;
         for (String arg : args) {
             if ("--run-migration".equals(arg)) {
                 shouldRunMigration = true;
-                break;
+            } else if ("--rebuild-rating-summaries".equals(arg)) {
+                shouldRebuildRatingSummaries = true;
             }
         }
+
+        if (shouldRebuildRatingSummaries) {
+            ratingService.rebuildRatingSummaries();
+        }
         
         if (!shouldRunMigration) {
             return;
@@ -1,5 +1,6 @@
 package ca.yarbond.bookclub.config;
 
+import ca.yarbond.bookclub.service.MemberDirectory;
 import ca.yarbond.bookclub.service.MemberUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -10,6 +11,7 @@ import org.springframework.security.config.annotation.web.configurers.HeadersCon
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
 @Configuration
@@ -19,6 +21,9 @@ public class SecurityConfig {
     @Autowired
     private MemberUserDetailsService memberUserDetailsService;
 
+    @Autowired
+    private MemberDirectory memberDirectory;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -43,7 +48,9 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf
                         .ignoringRequestMatchers("/h2-console/**")
                 )
-                .userDetailsService(memberUserDetailsService);
+                .userDetailsService(memberUserDetailsService)
+                // Refresh the member principal before access decisions are made
+                .addFilterBefore(new MemberPrincipalRefreshFilter(memberDirectory), AuthorizationFilter.class);
 
         // Allow frames for H2 console
         http.headers(headers -> headers.frameOptions(HeadersConfigurer.FrameOptionsConfig::sameOrigin));
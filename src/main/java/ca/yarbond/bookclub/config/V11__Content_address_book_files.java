@@ -0,0 +1,146 @@
+package ca.yarbond.bookclub.config;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Moves stored book files from flat title-author-suffix names to the content-addressed layout
+ * (aa/bb/<sha256>.<ext>), merging identical files and filling stored_files reference counts.
+ * The old name, without its random suffix, becomes the download name.
+ * Files are copied, never moved: a failed migration rolls back to rows that still point at the
+ * untouched originals. LegacyBookFileCleanup removes the originals once this has committed.
+ */
+@Component
+public class V11__Content_address_book_files extends BaseJavaMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(V11__Content_address_book_files.class);
+
+    private final Path booksStorageLocation;
+
+    public V11__Content_address_book_files(@Value("${app.storage.books-location}") String booksStorageLocation) {
+        this.booksStorageLocation = Paths.get(booksStorageLocation).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        Map<String, StoredContent> contents = new LinkedHashMap<>();
+        int copied = 0;
+        int missing = 0;
+
+        try (Statement select = connection.createStatement();
+             ResultSet files = select.executeQuery("SELECT id, format, stored_name, sha256 FROM book_files");
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE book_files SET stored_name = ?, display_name = ?, size = ?, sha256 = ? WHERE id = ?")) {
+
+            while (files.next()) {
+                String oldName = files.getString("stored_name");
+                String displayName = oldName.replaceFirst("-[0-9a-f]{4}(\\.[^.]+)$", "$1");
+                Path original = booksStorageLocation.resolve(oldName).normalize();
+
+                if (!Files.isRegularFile(original)) {
+                    // Left under its old name; downloads keep returning 404 until it is re-uploaded
+                    missing++;
+                    try (PreparedStatement name = connection.prepareStatement(
+                            "UPDATE book_files SET display_name = ? WHERE id = ?")) {
+                        name.setString(1, displayName);
+                        name.setLong(2, files.getLong("id"));
+                        name.executeUpdate();
+                    }
+                    continue;
+                }
+
+                String sha256 = files.getString("sha256");
+                if (sha256 == null) {
+                    sha256 = sha256(original);
+                }
+                long size = Files.size(original);
+                String storedName = sha256 + "." + files.getString("format").toLowerCase();
+
+                StoredContent content = contents.get(storedName);
+                if (content == null) {
+                    content = new StoredContent(sha256, size);
+                    contents.put(storedName, content);
+                    Path target = contentPath(storedName);
+                    if (!Files.exists(target)) {
+                        Files.createDirectories(target.getParent());
+                        Files.copy(original, target);
+                    }
+                }
+                content.refCount++;
+                copied++;
+
+                update.setString(1, storedName);
+                update.setString(2, displayName);
+                update.setLong(3, size);
+                update.setString(4, sha256);
+                update.setLong(5, files.getLong("id"));
+                update.addBatch();
+            }
+            update.executeBatch();
+        }
+
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO stored_files (stored_name, sha256, size, ref_count, created_at) VALUES (?, ?, ?, ?, ?)")) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            for (Map.Entry<String, StoredContent> entry : contents.entrySet()) {
+                insert.setString(1, entry.getKey());
+                insert.setString(2, entry.getValue().sha256);
+                insert.setLong(3, entry.getValue().size);
+                insert.setInt(4, entry.getValue().refCount);
+                insert.setTimestamp(5, now);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+
+        logger.info("Copied {} book files into {} content-addressed files, {} missing from storage",
+                copied, contents.size(), missing);
+    }
+
+    private Path contentPath(String storedName) {
+        return booksStorageLocation.resolve(storedName.substring(0, 2))
+                .resolve(storedName.substring(2, 4))
+                .resolve(storedName);
+    }
+
+    private String sha256(Path path) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = new DigestInputStream(Files.newInputStream(path), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static final class StoredContent {
+        private final String sha256;
+        private final long size;
+        private int refCount;
+
+        private StoredContent(String sha256, long size) {
+            this.sha256 = sha256;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package ca.yarbond.bookclub.config;
+
+import ca.yarbond.bookclub.service.FileStorageService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Copies the books.file_paths JSON maps into book_files, with size and SHA-256 read from the
+ * stored files, then drops the JSON column. A Spring bean rather than a classpath migration,
+ * because it needs the books storage location; Spring Boot hands JavaMigration beans to Flyway.
+ */
+@Component
+public class V9__Move_file_paths_to_book_files extends BaseJavaMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(V9__Move_file_paths_to_book_files.class);
+
+    private final Path booksStorageLocation;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public V9__Move_file_paths_to_book_files(@Value("${app.storage.books-location}") String booksStorageLocation) {
+        this.booksStorageLocation = Paths.get(booksStorageLocation).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        LocalDateTime migratedAt = LocalDateTime.now();
+        int copied = 0;
+
+        try (Statement select = connection.createStatement();
+             ResultSet books = select.executeQuery("SELECT id, file_paths FROM books WHERE file_paths IS NOT NULL");
+             PreparedStatement insert = connection.prepareStatement(
+                     "INSERT INTO book_files (book_id, format, stored_name, size, sha256, content_type, uploaded_at) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+
+            while (books.next()) {
+                long bookId = books.getLong("id");
+                for (Map.Entry<String, String> file : parseFilePaths(books.getString("file_paths")).entrySet()) {
+                    String format = file.getKey().toLowerCase();
+                    Path path = booksStorageLocation.resolve(file.getValue()).normalize();
+
+                    insert.setLong(1, bookId);
+                    insert.setString(2, format);
+                    insert.setString(3, file.getValue());
+                    if (Files.isRegularFile(path)) {
+                        insert.setLong(4, Files.size(path));
+                        insert.setString(5, sha256(path));
+                    } else {
+                        // Keep the row so the link still shows; metadata fills in on re-upload
+                        logger.warn("Book {} file {} is missing from storage", bookId, file.getValue());
+                        insert.setNull(4, Types.BIGINT);
+                        insert.setNull(5, Types.VARCHAR);
+                    }
+                    insert.setString(6, FileStorageService.contentTypeFor(format));
+                    insert.setTimestamp(7, Timestamp.valueOf(migratedAt));
+                    insert.addBatch();
+                    copied++;
+                }
+            }
+            insert.executeBatch();
+        }
+
+        try (Statement drop = connection.createStatement()) {
+            drop.execute("ALTER TABLE books DROP COLUMN file_paths");
+        }
+        logger.info("Moved {} book files from books.file_paths to book_files", copied);
+    }
+
+    private Map<String, String> parseFilePaths(String json) throws IOException {
+        if (json == null || json.isBlank()) {
+            return Map.of();
+        }
+        JsonNode node = objectMapper.readTree(json);
+        // Values written as a JSON string come back quoted once more
+        if (node.isTextual()) {
+            node = objectMapper.readTree(node.asText());
+        }
+        if (node == null || !node.isObject()) {
+            return Map.of();
+        }
+        return objectMapper.convertValue(node, new TypeReference<Map<String, String>>() { });
+    }
+
+    private String sha256(Path path) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (InputStream in = new DigestInputStream(Files.newInputStream(path), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,45 @@
+package ca.yarbond.bookclub.controller;
+
+import ca.yarbond.bookclub.dto.BackgroundJobStatus;
+import ca.yarbond.bookclub.service.BackgroundJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for polling the background processing of a book
+ */
+@RestController
+@RequestMapping("/api/jobs")
+public class BackgroundJobController {
+
+    private final BackgroundJobService backgroundJobService;
+
+    @Autowired
+    public BackgroundJobController(BackgroundJobService backgroundJobService) {
+        this.backgroundJobService = backgroundJobService;
+    }
+
+    /**
+     * Recent jobs of a book, newest first
+     *
+     * @param bookId The book id
+     * @param active Only pending and running jobs
+     */
+    @GetMapping
+    public ResponseEntity<List<BackgroundJobStatus>> getJobs(@RequestParam Long bookId,
+                                                             @RequestParam(defaultValue = "false") boolean active) {
+        List<BackgroundJobStatus> jobs = (active
+                ? backgroundJobService.getActiveJobsForBook(bookId)
+                : backgroundJobService.getRecentJobsForBook(bookId))
+                .stream()
+                .map(BackgroundJobStatus::of)
+                .toList();
+        return ResponseEntity.ok(jobs);
+    }
+}
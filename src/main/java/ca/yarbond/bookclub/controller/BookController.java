@@ -1,16 +1,15 @@
 package ca.yarbond.bookclub.controller;
 
+import ca.yarbond.bookclub.dto.BookCursorPage;
+import ca.yarbond.bookclub.dto.BookListItem;
 import ca.yarbond.bookclub.model.Book;
 import ca.yarbond.bookclub.model.BookStatus;
+import ca.yarbond.bookclub.model.JobType;
 import ca.yarbond.bookclub.model.Member;
 import ca.yarbond.bookclub.model.Rating;
 import ca.yarbond.bookclub.service.*;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
@@ -28,25 +27,24 @@ import static ca.yarbond.bookclub.service.BookSearchService.DEFAULT_PAGE_SIZE;
 @RequestMapping("/books")
 public class BookController {
 
-    private static final Logger logger = LoggerFactory.getLogger(BookController.class);
-
     private final BookService bookService;
     private final MemberService memberService;
     private final RatingService ratingService;
-    private final FileStorageService fileStorageService;
     private final BookSearchService bookSearchService;
     private final BookCompletionService bookCompletionService;
+    private final BackgroundJobService backgroundJobService;
 
     @Autowired
     public BookController(BookService bookService, MemberService memberService, 
-                         RatingService ratingService, FileStorageService fileStorageService,
-                         BookSearchService bookSearchService, BookCompletionService bookCompletionService) {
+                         RatingService ratingService,
+                         BookSearchService bookSearchService, BookCompletionService bookCompletionService,
+                         BackgroundJobService backgroundJobService) {
         this.bookService = bookService;
         this.memberService = memberService;
         this.ratingService = ratingService;
-        this.fileStorageService = fileStorageService;
         this.bookSearchService = bookSearchService;
         this.bookCompletionService = bookCompletionService;
+        this.backgroundJobService = backgroundJobService;
     }
 
     @GetMapping
@@ -54,16 +52,47 @@ public class BookController {
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) Long ownerId,
+            @RequestParam(required = false) Boolean fiction,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String mode,
             @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) String cursor,
             Model model) {
         
-        // Use the search service to get books with applied filters
-        Page<Book> bookPage = bookSearchService.searchBooks(search, status, ownerId, page);
-        
-        // Add the book list and pagination data to the model
-        model.addAttribute("books", bookPage.getContent());
-        model.addAttribute("totalPages", bookPage.getTotalPages());
-        model.addAttribute("totalItems", bookPage.getTotalElements());
+        BookSearchService.SearchMode searchMode = BookSearchService.SearchMode.fromString(mode);
+        List<BookListItem> books;
+        if (searchMode == BookSearchService.SearchMode.FUZZY) {
+            // Fuzzy results are ranked by relevance, so they keep page numbers
+            Page<BookListItem> bookPage = bookSearchService.searchBooks(search, status, ownerId, fiction, format,
+                    searchMode, page);
+            books = bookPage.getContent();
+
+            model.addAttribute("books", books);
+            model.addAttribute("totalPages", bookPage.getTotalPages());
+            model.addAttribute("totalItems", bookPage.getTotalElements());
+            model.addAttribute("cursorPaging", false);
+        } else {
+            // Everything else seeks from the cursor: no OFFSET and no COUNT query
+            BookCursorPage cursorPage = bookSearchService.searchBooksByCursor(search, status, ownerId, fiction,
+                    format, cursor);
+            books = cursorPage.getSlice().getContent();
+
+            model.addAttribute("books", books);
+            model.addAttribute("nextCursor", cursorPage.getNextCursor());
+            model.addAttribute("previousCursor", cursorPage.getPreviousCursor());
+            model.addAttribute("cursorPaging", true);
+        }
+
+        // Ratings for the completed books on this page, in one grouped query
+        List<Long> completedBookIds = books.stream()
+                .filter(book -> book.getStatus() == BookStatus.COMPLETED)
+                .map(BookListItem::getId)
+                .toList();
+        model.addAttribute("bookRatings", ratingService.getAverageRatingsForBooks(completedBookIds));
+
+        // Download links for the books on this page, as the rows don't carry files
+        model.addAttribute("bookFiles", bookService.getFilePathsForBooks(
+                books.stream().map(BookListItem::getId).toList()));
 
         // Add pagination info
         model.addAttribute("currentPage", page);
@@ -73,6 +102,9 @@ public class BookController {
         model.addAttribute("search", search);
         model.addAttribute("status", status);
         model.addAttribute("ownerId", ownerId);
+        model.addAttribute("fiction", fiction);
+        model.addAttribute("format", format);
+        model.addAttribute("mode", searchMode == BookSearchService.SearchMode.FUZZY ? "fuzzy" : null);
         
         // Other attributes
         model.addAttribute("newBook", new Book());
@@ -85,13 +117,12 @@ public class BookController {
 
     @GetMapping("/{id}")
     public String getBookById(@PathVariable Long id, Model model) {
-        Book book = bookService.getBookById(id);
+        Book book = bookService.getBookWithDetails(id);
         List<Rating> ratings = ratingService.getRatingsByBookId(id);
         Map<String, Double> averageRatings = ratingService.getAverageRatings(id);
 
         // Get current authenticated user
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        Member currentMember = memberService.getMemberByName(auth.getName());
+        Member currentMember = memberService.getMemberById(MemberPrincipal.currentMemberId());
         
         // Get book completion records and counts - for all book statuses
         boolean hasFinishedReading = bookCompletionService.hasReadBook(id, currentMember.getId());
@@ -106,6 +137,7 @@ public class BookController {
         model.addAttribute("hasFinishedReading", hasFinishedReading);
         model.addAttribute("isCompletable", isCompletable);
         model.addAttribute("membersWhoRead", membersWhoRead);
+        model.addAttribute("activeJobs", backgroundJobService.getActiveJobsForBook(id));
         model.addAttribute("activeTab", "books");
 
         return "books/detail";
@@ -117,8 +149,7 @@ public class BookController {
     @GetMapping("/add")
     public String showAddBookForm(Model model) {
         // Get current authenticated user for default owner
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        Member currentMember = memberService.getMemberByName(auth.getName());
+        Member currentMember = memberService.getMemberById(MemberPrincipal.currentMemberId());
         
         Book book = new Book();
         book.setOwner(currentMember);
@@ -133,7 +164,7 @@ public class BookController {
      */
     @GetMapping("/{id}/edit")
     public String showEditBookForm(@PathVariable Long id, Model model) {
-        Book book = bookService.getBookById(id);
+        Book book = bookService.getBookWithDetails(id);
         model.addAttribute("book", book);
         model.addAttribute("members", memberService.getAllMembers());
         
@@ -152,8 +183,7 @@ public class BookController {
             
             // If not in admin mode, set the owner to current user regardless of what was submitted
             if (!adminModeEnabled) {
-                Member currentMember = memberService.getMemberByName(SecurityContextHolder
-                        .getContext().getAuthentication().getName());
+                Member currentMember = memberService.getMemberById(MemberPrincipal.currentMemberId());
                 book.setOwner(currentMember);
             } 
             // If in admin mode, get the selected member from the database
@@ -178,21 +208,18 @@ public class BookController {
 
             Book createdBook = bookService.createBook(book);
 
-            if (coverUrl != null && !coverUrl.isEmpty()) {
-                try {
-                    fileStorageService.downloadRemoteCoverImage(createdBook, coverUrl);
-                    redirectAttributes.addFlashAttribute("successMessage",
-                            "Book '" + createdBook.getTitle() + "' created successfully with cover image");
-                } catch (Exception e) {
-                    // Just log the error but continue - the book was created successfully
-                    logger.error("Failed to download cover image: {}", e.getMessage());
-                    redirectAttributes.addFlashAttribute("successMessage",
-                            "Book '" + createdBook.getTitle() + "' created successfully, but cover image could not be downloaded");
-                }
-            } else {
-                redirectAttributes.addFlashAttribute("successMessage",
-                        "Book '" + createdBook.getTitle() + "' created successfully");
+            // The cover is downloaded and missing details looked up in the background
+            boolean hasCoverUrl = coverUrl != null && !coverUrl.isEmpty();
+            if (hasCoverUrl) {
+                backgroundJobService.enqueue(JobType.DOWNLOAD_REMOTE_COVER, createdBook.getId(), coverUrl);
+            }
+            if (createdBook.getPageCount() == null || !hasCoverUrl) {
+                backgroundJobService.enqueue(JobType.ENRICH_METADATA, createdBook.getId(), null);
             }
+
+            redirectAttributes.addFlashAttribute("successMessage", hasCoverUrl
+                    ? "Book '" + createdBook.getTitle() + "' created successfully, the cover image is being downloaded"
+                    : "Book '" + createdBook.getTitle() + "' created successfully");
             return "redirect:/books/" + createdBook.getId();
         } catch (Exception e) {
             redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
@@ -235,18 +262,11 @@ public class BookController {
 
             Book updatedBook = bookService.updateBook(id, book);
 
-            // Handle remote cover image if provided
+            // Handle remote cover image if provided; it is downloaded in the background
             if (coverUrl != null && !coverUrl.isEmpty()) {
-                try {
-                    fileStorageService.downloadRemoteCoverImage(updatedBook, coverUrl);
-                    redirectAttributes.addFlashAttribute("successMessage",
-                            "Book '" + updatedBook.getTitle() + "' updated successfully with new cover image");
-                } catch (Exception e) {
-                    // Just log the error but continue - the book was updated successfully
-                    logger.error("Failed to download cover image: {}", e.getMessage());
-                    redirectAttributes.addFlashAttribute("successMessage",
-                            "Book '" + updatedBook.getTitle() + "' updated successfully, but cover image could not be downloaded");
-                }
+                backgroundJobService.enqueue(JobType.DOWNLOAD_REMOTE_COVER, updatedBook.getId(), coverUrl);
+                redirectAttributes.addFlashAttribute("successMessage",
+                        "Book '" + updatedBook.getTitle() + "' updated successfully, the new cover image is being downloaded");
             } else {
                 redirectAttributes.addFlashAttribute("successMessage",
                         "Book '" + updatedBook.getTitle() + "' updated successfully");
@@ -306,8 +326,7 @@ public class BookController {
                                   RedirectAttributes redirectAttributes) {
         try {
             // Get current authenticated user
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            Member member = memberService.getMemberByName(auth.getName());
+            Member member = memberService.getMemberById(MemberPrincipal.currentMemberId());
             
             // Remove the book completion record
             if (bookCompletionService.hasReadBook(id, member.getId())) {
@@ -341,8 +360,7 @@ public class BookController {
                                RedirectAttributes redirectAttributes) {
         try {
             // Get current authenticated user
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            Member currentMember = memberService.getMemberByName(auth.getName());
+            Member currentMember = memberService.getMemberById(MemberPrincipal.currentMemberId());
             
             // Get the rating
             Rating rating = ratingService.getRatingById(id);
@@ -389,8 +407,7 @@ public class BookController {
             Book book = bookService.getBookById(id);
 
             // Get current authenticated user
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            Member member = memberService.getMemberByName(auth.getName());
+            Member member = memberService.getMemberById(MemberPrincipal.currentMemberId());
             
             // Check if already marked as read
             if (bookCompletionService.hasReadBook(id, member.getId())) {
@@ -0,0 +1,69 @@
+package ca.yarbond.bookclub.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * REST controller exposing Hibernate second-level and query cache statistics to admins
+ */
+@RestController
+@RequestMapping("/admin/cache-stats")
+public class CacheStatsController {
+
+    private final Statistics statistics;
+
+    @Autowired
+    public CacheStatsController(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Hit, miss and put counts since startup, overall and per cache region
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("secondLevelCache", counts(
+                statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount()));
+        stats.put("queryCache", counts(
+                statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount()));
+
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                Map<String, Object> regionStats = counts(region.getHitCount(), region.getMissCount(), region.getPutCount());
+                regionStats.put("elementsInMemory", region.getElementCountInMemory());
+                regions.put(regionName, regionStats);
+            }
+        }
+        stats.put("regions", regions);
+        stats.put("statisticsSince", statistics.getStart());
+
+        return ResponseEntity.ok(stats);
+    }
+
+    private Map<String, Object> counts(long hits, long misses, long puts) {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        counts.put("hits", hits);
+        counts.put("misses", misses);
+        counts.put("puts", puts);
+        long lookups = hits + misses;
+        counts.put("hitRatio", lookups == 0 ? 0.0 : (double) hits / lookups);
+        return counts;
+    }
+}
@@ -1,17 +1,23 @@
 package ca.yarbond.bookclub.controller;
 
+import ca.yarbond.bookclub.model.BookFile;
 import ca.yarbond.bookclub.service.BookService;
+import ca.yarbond.bookclub.service.CoverThumbnailService;
 import ca.yarbond.bookclub.service.FileStorageService;
+import ca.yarbond.bookclub.util.RangeFileSender;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
 @Controller
@@ -20,48 +26,98 @@ public class FileController {
 
     private final FileStorageService fileStorageService;
     private final BookService bookService;
+    private final RangeFileSender rangeFileSender;
+    private final CoverThumbnailService coverThumbnailService;
 
     @Autowired
-    public FileController(FileStorageService fileStorageService, BookService bookService) {
+    public FileController(FileStorageService fileStorageService, BookService bookService,
+                          RangeFileSender rangeFileSender, CoverThumbnailService coverThumbnailService) {
         this.fileStorageService = fileStorageService;
         this.bookService = bookService;
+        this.rangeFileSender = rangeFileSender;
+        this.coverThumbnailService = coverThumbnailService;
     }
 
-    @GetMapping("/books/{filename:.+}")
-    public ResponseEntity<Resource> downloadBook(@PathVariable String filename) {
+    /**
+     * Book file download with conditional GET and byte range support, so unchanged files
+     * aren't downloaded again and interrupted downloads resume where they stopped.
+     * Files are stored by content hash; the client gets the book's readable file name.
+     */
+    @GetMapping("/books/{bookId}/{format}")
+    public void downloadBook(@PathVariable Long bookId, @PathVariable String format,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        BookFile metadata = fileStorageService.findBookFile(bookId, format).orElse(null);
+        Path filePath;
+        long lastModified;
         try {
-            Path filePath = fileStorageService.loadBookAsResource(filename);
-            Resource resource = new UrlResource(filePath.toUri());
-
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                    .body(resource);
+            if (metadata == null) {
+                throw new RuntimeException("No " + format + " file for book " + bookId);
+            }
+            filePath = fileStorageService.loadBookAsResource(metadata.getStoredName());
+            lastModified = Files.getLastModifiedTime(filePath).toMillis();
         } catch (Exception e) {
-            return ResponseEntity.notFound().build();
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
+
+        // Length, checksum and type come from book_files; files without metadata fall back to the disk
+        long length = metadata.getSize() != null ? metadata.getSize() : Files.size(filePath);
+        String etag = metadata.getSha256() != null
+                ? "\"" + metadata.getSha256() + "\""
+                : "W/\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+        String contentType = metadata.getContentType() != null
+                ? metadata.getContentType()
+                : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        String contentDisposition = ContentDisposition.attachment()
+                .filename(metadata.getDownloadName(), StandardCharsets.UTF_8)
+                .build()
+                .toString();
+
+        // Instead of Spring Security's no-store default: clients may keep the file but must revalidate it
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        rangeFileSender.send(request, response, new RangeFileSender.FileInfo(
+                filePath, length, lastModified, etag, contentType, contentDisposition));
     }
 
+    /**
+     * Cover image, or with a size the variant of the next supported width (96, 192 or 400 px).
+     * Cover names are never reused for different content, so responses are cacheable for good
+     * and the name itself is a strong ETag.
+     */
     @GetMapping("/covers/{filename:.+}")
-    public ResponseEntity<Resource> downloadCover(@PathVariable String filename) {
+    public void downloadCover(@PathVariable String filename, @RequestParam(required = false) Integer size,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Integer width = size != null ? CoverThumbnailService.variantWidth(size) : null;
+        Path filePath;
+        long length;
+        long lastModified;
         try {
-            Path filePath = fileStorageService.loadCoverAsResource(filename);
-            Resource resource = new UrlResource(filePath.toUri());
-
-            // Determine media type based on file extension
-            String contentType = "image/jpeg";
-            if (filename.toLowerCase().endsWith(".png")) {
-                contentType = "image/png";
-            } else if (filename.toLowerCase().endsWith(".gif")) {
-                contentType = "image/gif";
-            }
-
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .body(resource);
+            filePath = width != null
+                    ? coverThumbnailService.getVariant(filename, width)
+                    : fileStorageService.loadCoverAsResource(filename);
+            length = Files.size(filePath);
+            lastModified = Files.getLastModifiedTime(filePath).toMillis();
         } catch (Exception e) {
-            return ResponseEntity.notFound().build();
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
+
+        // Determine media type based on file extension; variants are always JPEG
+        String contentType = "image/jpeg";
+        String servedName = filePath.getFileName().toString().toLowerCase();
+        if (servedName.endsWith(".png")) {
+            contentType = "image/png";
+        } else if (servedName.endsWith(".gif")) {
+            contentType = "image/gif";
+        }
+
+        // New covers are named by content hash and older ones by a random UUID; either way a
+        // replaced cover gets a new name and URL, so an old URL can be cached for good
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=31536000, immutable");
+        String baseName = filename.contains(".") ? filename.substring(0, filename.lastIndexOf('.')) : filename;
+        String etag = "\"" + baseName + (width != null ? "-" + width : "") + "\"";
+        rangeFileSender.send(request, response, new RangeFileSender.FileInfo(
+                filePath, length, lastModified, etag, contentType, null));
     }
 
     /**
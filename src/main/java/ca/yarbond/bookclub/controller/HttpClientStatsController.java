@@ -0,0 +1,52 @@
+package ca.yarbond.bookclub.controller;
+
+import ca.yarbond.bookclub.util.OutboundHttpClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * REST controller exposing outbound HTTP request counts and latency to admins
+ */
+@RestController
+@RequestMapping("/admin/http-client-stats")
+public class HttpClientStatsController {
+
+    private final OutboundHttpClient outboundHttpClient;
+
+    @Autowired
+    public HttpClientStatsController(OutboundHttpClient outboundHttpClient) {
+        this.outboundHttpClient = outboundHttpClient;
+    }
+
+    /**
+     * Requests in flight, and per host the request, failure and rejection counts and latency since startup
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getHttpClientStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requestsInFlight", outboundHttpClient.getRequestsInFlight());
+        stats.put("maxConcurrentRequests", outboundHttpClient.getMaxConcurrentRequests());
+
+        Map<String, Object> hosts = new LinkedHashMap<>();
+        outboundHttpClient.getHostStats().forEach((host, hostStats) -> {
+            Map<String, Object> hostCounts = new LinkedHashMap<>();
+            hostCounts.put("requests", hostStats.getRequests());
+            hostCounts.put("failures", hostStats.getFailures());
+            hostCounts.put("rejected", hostStats.getRejected());
+            hostCounts.put("meanMillis", hostStats.getMeanMillis());
+            hostCounts.put("maxMillis", hostStats.getMaxMillis());
+            hostCounts.put("recentP50Millis", hostStats.getRecentPercentileMillis(50));
+            hostCounts.put("recentP95Millis", hostStats.getRecentPercentileMillis(95));
+            hosts.put(host, hostCounts);
+        });
+        stats.put("hosts", hosts);
+
+        return ResponseEntity.ok(stats);
+    }
+}
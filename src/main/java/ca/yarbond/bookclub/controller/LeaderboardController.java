@@ -0,0 +1,58 @@
+package ca.yarbond.bookclub.controller;
+
+import ca.yarbond.bookclub.dto.BookFilter;
+import ca.yarbond.bookclub.model.BookStatus;
+import ca.yarbond.bookclub.service.BookRankingService;
+import ca.yarbond.bookclub.service.MemberService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+@Controller
+@RequestMapping("/leaderboard")
+public class LeaderboardController {
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 50;
+
+    private final BookRankingService bookRankingService;
+    private final MemberService memberService;
+
+    @Autowired
+    public LeaderboardController(BookRankingService bookRankingService, MemberService memberService) {
+        this.bookRankingService = bookRankingService;
+        this.memberService = memberService;
+    }
+
+    @GetMapping
+    public String viewLeaderboard(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long ownerId,
+            @RequestParam(required = false) Boolean fiction,
+            @RequestParam(defaultValue = "" + DEFAULT_LIMIT) int limit,
+            Model model) {
+
+        BookStatus bookStatus = BookStatus.fromString(status);
+        BookFilter filter = BookFilter.builder()
+                .status(bookStatus)
+                .ownerId(ownerId)
+                .fiction(fiction)
+                .build();
+        int topN = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        model.addAttribute("topRated", bookRankingService.getTopRated(filter, topN));
+        model.addAttribute("mostRead", bookRankingService.getMostRead(filter, topN));
+
+        model.addAttribute("status", bookStatus != null ? bookStatus.name() : null);
+        model.addAttribute("ownerId", ownerId);
+        model.addAttribute("fiction", fiction);
+        model.addAttribute("limit", topN);
+        model.addAttribute("members", memberService.getAllMembers());
+        model.addAttribute("activeTab", "leaderboard");
+
+        return "leaderboard/view";
+    }
+}
@@ -1,18 +1,14 @@
 package ca.yarbond.bookclub.controller;
 
+import ca.yarbond.bookclub.dto.DashboardSnapshot;
 import ca.yarbond.bookclub.model.Book;
-import ca.yarbond.bookclub.model.BookStatus;
 import ca.yarbond.bookclub.model.Member;
-import ca.yarbond.bookclub.model.MemberQueueItem;
 import ca.yarbond.bookclub.service.BookCompletionService;
 import ca.yarbond.bookclub.service.BookService;
-import ca.yarbond.bookclub.service.MemberQueueService;
+import ca.yarbond.bookclub.service.DashboardService;
+import ca.yarbond.bookclub.service.MemberPrincipal;
 import ca.yarbond.bookclub.service.MemberService;
-import ca.yarbond.bookclub.service.RatingService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.util.Pair;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,94 +16,55 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
-
 @Controller
 public class MainController {
 
     private final BookService bookService;
-    private final RatingService ratingService;
-    private final MemberQueueService memberQueueService;
     private final MemberService memberService;
     private final BookCompletionService bookCompletionService;
+    private final DashboardService dashboardService;
 
     @Autowired
-    public MainController(BookService bookService, RatingService ratingService,
-                          MemberQueueService memberQueueService, MemberService memberService,
-                          BookCompletionService bookCompletionService) {
+    public MainController(BookService bookService, MemberService memberService,
+                          BookCompletionService bookCompletionService, DashboardService dashboardService) {
         this.bookService = bookService;
-        this.ratingService = ratingService;
-        this.memberQueueService = memberQueueService;
         this.memberService = memberService;
         this.bookCompletionService = bookCompletionService;
+        this.dashboardService = dashboardService;
     }
 
     @GetMapping("/")
     public String index(Model model) {
-        // Auto-promote next book if needed
-        boolean promoted = bookService.promoteNextBookIfNeeded();
-
-        // Get current and next books (after possible promotion)
-        Book currentBook = bookService.getCurrentBook();
-        Book nextBook = bookService.getNextBook();
-        if (promoted && currentBook != null) {
-            model.addAttribute("successMessage",
-                    "\"" + currentBook.getTitle() + "\" has been automatically promoted to current reading.");
-        }
+        // Read-only: the next book is promoted by the writes that leave no current book
+        DashboardSnapshot dashboard = dashboardService.getSnapshot();
+        Book currentBook = dashboard.getCurrentBook();
         model.addAttribute("currentBook", currentBook);
-        model.addAttribute("nextBook", nextBook);
-        
+        model.addAttribute("nextBook", dashboard.getNextBook());
+
         // Add reading progress information for the current book
         if (currentBook != null) {
             // Get current authenticated user
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            Member currentMember = memberService.getMemberByName(auth.getName());
-            
-            // Get book completion records and counts
-            boolean hasFinishedReading = bookCompletionService.hasReadBook(currentBook.getId(), currentMember.getId());
-            boolean isCompletable = bookCompletionService.isBookCompletable(currentBook.getId());
-            List<Member> membersWhoRead = bookCompletionService.getMembersWhoReadBook(currentBook.getId());
-            
-            model.addAttribute("currentMember", currentMember);
-            model.addAttribute("hasFinishedReading", hasFinishedReading);
-            model.addAttribute("isCompletable", isCompletable);
-            model.addAttribute("membersWhoRead", membersWhoRead);
-        }
+            Member currentMember = memberService.getMemberById(MemberPrincipal.currentMemberId());
 
-        // Get current member's other wishlist books (for replace functionality)
-        if (currentBook != null && currentBook.getOwner() != null) {
-            List<Book> currentMemberWishlistBooks = bookService.getBooksByOwnerIdAndStatus(
-                    currentBook.getOwner().getId(), BookStatus.WISHLIST);
-            model.addAttribute("currentMemberWishlistBooks", currentMemberWishlistBooks);
+            model.addAttribute("currentMember", currentMember);
+            model.addAttribute("hasFinishedReading", dashboard.hasFinishedReading(currentMember.getId()));
+            model.addAttribute("isCompletable", dashboard.isCurrentBookCompletable());
+            model.addAttribute("membersWhoRead", dashboard.getMembersWhoRead());
+            model.addAttribute("currentMemberWishlistBooks", dashboard.getCurrentOwnerWishlistBooks());
         }
 
-        // Get next members books for selection
-        Pair<MemberQueueItem, List<Book>> pair = bookService.getNextMemberWithWishlistBooks(currentBook);
-
-        if(pair != null) {
-            model.addAttribute("nextMember", pair.getFirst());
-            model.addAttribute("nextMemberBooks", pair.getSecond());
+        // Next members books for selection
+        if (dashboard.getNextMember() != null) {
+            model.addAttribute("nextMember", dashboard.getNextMember());
+            model.addAttribute("nextMemberBooks", dashboard.getNextMemberBooks());
         }
 
-        // Get recently completed books
-        List<Book> recentlyCompletedBooks = bookService.getRecentlyCompletedBooks();
-        model.addAttribute("recentlyCompletedBooks", recentlyCompletedBooks);
-
-        // Get average ratings for completed books
-        if (!recentlyCompletedBooks.isEmpty()) {
-            List<Long> bookIds = recentlyCompletedBooks.stream()
-                    .map(Book::getId)
-                    .collect(Collectors.toList());
-
-            Map<Long, Map<String, Double>> bookRatings = ratingService.getAverageRatingsForBooks(bookIds);
-            model.addAttribute("bookRatings", bookRatings);
-        }
+        // Recently completed books with their average ratings and download links
+        model.addAttribute("recentlyCompletedBooks", dashboard.getRecentlyCompletedBooks());
+        model.addAttribute("bookRatings", dashboard.getBookRatings());
+        model.addAttribute("bookFiles", dashboard.getBookFiles());
 
-        // Add queue members
-        List<MemberQueueItem> queueMembers = memberQueueService.getQueue();
-        model.addAttribute("queueMembers", queueMembers);
+        model.addAttribute("queueMembers", dashboard.getQueueMembers());
         model.addAttribute("activeTab", "home");
         return "index";
     }
@@ -122,8 +79,7 @@ public class MainController {
     public String completeCurrentBook(RedirectAttributes redirectAttributes) {
         try {
             // Get current authenticated user
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            Member currentMember = memberService.getMemberByName(auth.getName());
+            MemberPrincipal principal = MemberPrincipal.current();
             
             // Get current book
             Book currentBook = bookService.getCurrentBook();
@@ -134,14 +90,13 @@ public class MainController {
             }
             
             // Check if user is admin (admin can always complete a book)
-            boolean isAdmin = auth.getAuthorities().stream()
-                    .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+            boolean isAdmin = principal.isAdmin();
             
             if (!isAdmin) {
                 // Regular user validations:
                 
                 // 1. Check if user has read the book
-                boolean hasRead = bookCompletionService.hasReadBook(currentBook.getId(), currentMember.getId());
+                boolean hasRead = bookCompletionService.hasReadBook(currentBook.getId(), principal.getMemberId());
                 if (!hasRead) {
                     redirectAttributes.addFlashAttribute("errorMessage", 
                             "You must mark the book as read before marking it as completed");
@@ -1,6 +1,5 @@
 package ca.yarbond.bookclub.controller;
 
-import ca.yarbond.bookclub.model.Book;
 import ca.yarbond.bookclub.model.Member;
 import ca.yarbond.bookclub.model.MemberQueueItem;
 import ca.yarbond.bookclub.service.BookService;
@@ -18,9 +17,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import jakarta.servlet.http.HttpSession;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 @Controller
 @RequestMapping("/queue")
@@ -56,29 +53,8 @@ public class QueueController {
         List<Member> allMembers = memberService.getAllMembers();
         model.addAttribute("allMembers", allMembers);
 
-        List<Book> allBooks = bookService.getAllBooks();
-
-        // Initialize count maps
-        Map<Long, Integer> wishlistCounts = new HashMap<>();
-        Map<Long, Integer> bookCounts = new HashMap<>();
-
-        // Process all books once to update both counts
-        for (Book book : allBooks) {
-            if (book.getOwner() != null) {
-                Long ownerId = book.getOwner().getId();
-
-                // Update total book count
-                bookCounts.put(ownerId, bookCounts.getOrDefault(ownerId, 0) + 1);
-
-                // Update wishlist count if applicable
-                if (book.getStatus() == ca.yarbond.bookclub.model.BookStatus.WISHLIST) {
-                    wishlistCounts.put(ownerId, wishlistCounts.getOrDefault(ownerId, 0) + 1);
-                }
-            }
-        }
-
-        model.addAttribute("wishlistCounts", wishlistCounts);
-        model.addAttribute("bookCounts", bookCounts);
+        // Book counts per member from one grouped query
+        model.addAttribute("bookStats", bookService.getBookStatsByOwner());
 
         model.addAttribute("activeTab", "queue");
         return "queue/view";
@@ -0,0 +1,31 @@
+package ca.yarbond.bookclub.dto;
+
+import ca.yarbond.bookclub.model.BackgroundJob;
+import ca.yarbond.bookclub.model.JobStatus;
+import ca.yarbond.bookclub.model.JobType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a background job as polled by the book page
+ */
+@Getter
+@AllArgsConstructor
+public class BackgroundJobStatus {
+    private final Long id;
+    private final JobType type;
+    private final String label;
+    private final JobStatus status;
+    private final int attempts;
+    private final int maxAttempts;
+    private final LocalDateTime nextRunAt;
+    private final String lastError;
+    private final LocalDateTime updatedAt;
+
+    public static BackgroundJobStatus of(BackgroundJob job) {
+        return new BackgroundJobStatus(job.getId(), job.getType(), job.getType().getLabel(), job.getStatus(),
+                job.getAttempts(), job.getMaxAttempts(), job.getNextRunAt(), job.getLastError(), job.getUpdatedAt());
+    }
+}
@@ -0,0 +1,14 @@
+package ca.yarbond.bookclub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Comments of a single book, read without loading the book
+ */
+@Data
+@AllArgsConstructor
+public class BookComments {
+    private Long bookId;
+    private String comments;
+}
@@ -0,0 +1,63 @@
+package ca.yarbond.bookclub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Keyset pagination position in the book list.
+ * Points at the boundary book of a page (its id and completion date) and the direction
+ * to read in, and is passed to the browser as an opaque URL-safe token.
+ */
+@Data
+@AllArgsConstructor
+public class BookCursor {
+    private Long id;
+    private LocalDate completionDate;
+    private boolean backward;
+
+    /**
+     * Cursor for the page after the given book
+     */
+    public static BookCursor after(BookListItem book) {
+        return new BookCursor(book.getId(), book.getCompletionDate(), false);
+    }
+
+    /**
+     * Cursor for the page before the given book
+     */
+    public static BookCursor before(BookListItem book) {
+        return new BookCursor(book.getId(), book.getCompletionDate(), true);
+    }
+
+    public String encode() {
+        String raw = (backward ? "b" : "f") + "|" + (completionDate != null ? completionDate : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor token
+     *
+     * @return The cursor, or null if the token is missing or malformed
+     */
+    public static BookCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3) {
+                return null;
+            }
+            LocalDate completionDate = parts[1].isEmpty() ? null : LocalDate.parse(parts[1]);
+            return new BookCursor(Long.parseLong(parts[2]), completionDate, "b".equals(parts[0]));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
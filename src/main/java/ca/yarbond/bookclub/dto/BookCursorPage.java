@@ -0,0 +1,17 @@
+package ca.yarbond.bookclub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.data.domain.Slice;
+
+/**
+ * One keyset-paginated page of books with the cursor tokens of its neighbours.
+ * A token is null when there is no page in that direction.
+ */
+@Data
+@AllArgsConstructor
+public class BookCursorPage {
+    private Slice<BookListItem> slice;
+    private String nextCursor;
+    private String previousCursor;
+}
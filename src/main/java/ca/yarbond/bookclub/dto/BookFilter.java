@@ -0,0 +1,28 @@
+package ca.yarbond.bookclub.dto;
+
+import ca.yarbond.bookclub.model.BookStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Collection;
+
+/**
+ * Optional filters for book queries. A null field means "don't filter on this".
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookFilter {
+    private Long ownerId;
+    private BookStatus status;
+    private Boolean fiction;
+    private Integer minPageCount;
+    private Integer maxPageCount;
+    // Only books with a stored file in this format, e.g. "epub"
+    private String fileFormat;
+    // Restrict to these book ids, e.g. the matches of a search index
+    private Collection<Long> ids;
+}
@@ -0,0 +1,35 @@
+package ca.yarbond.bookclub.dto;
+
+import ca.yarbond.bookclub.model.BookStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only row of a book list: only the columns list pages render, with the owner's name
+ * selected through a join instead of loading the owner, file paths and full comments.
+ */
+@Getter
+@AllArgsConstructor
+public class BookListItem {
+    private final Long id;
+    private final String title;
+    private final String author;
+    private final String coverImagePath;
+    private final BookStatus status;
+    private final Long ownerId;
+    private final String ownerName;
+    private final boolean fiction;
+    private final Integer pageCount;
+    private final LocalDate completionDate;
+    // Start of the comments for book cards, null where the list doesn't show them
+    private final String description;
+
+    public BookListItem(Long id, String title, String author, String coverImagePath, BookStatus status,
+                        Long ownerId, String ownerName, boolean fiction, Integer pageCount,
+                        LocalDate completionDate) {
+        this(id, title, author, coverImagePath, status, ownerId, ownerName, fiction, pageCount,
+                completionDate, null);
+    }
+}
@@ -0,0 +1,14 @@
+package ca.yarbond.bookclub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Number of members who finished a single book
+ */
+@Data
+@AllArgsConstructor
+public class BookReadCount {
+    private Long bookId;
+    private Long readCount;
+}
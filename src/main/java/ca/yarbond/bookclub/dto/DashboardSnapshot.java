@@ -0,0 +1,40 @@
+package ca.yarbond.bookclub.dto;
+
+import ca.yarbond.bookclub.model.Book;
+import ca.yarbond.bookclub.model.Member;
+import ca.yarbond.bookclub.model.MemberQueueItem;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything the home page shows that is the same for every member.
+ * Built once and shared between requests until club data changes, so it must not be modified.
+ */
+@Getter
+@AllArgsConstructor
+public class DashboardSnapshot {
+    private final Book currentBook;
+    private final Book nextBook;
+    // Members who finished the current book
+    private final List<Member> membersWhoRead;
+    private final boolean currentBookCompletable;
+    // Other wishlist books of the current book's owner, for replacing the current book
+    private final List<BookListItem> currentOwnerWishlistBooks;
+    private final MemberQueueItem nextMember;
+    private final List<BookListItem> nextMemberBooks;
+    private final List<BookListItem> recentlyCompletedBooks;
+    private final Map<Long, Map<String, Double>> bookRatings;
+    // Download links of the recently completed books
+    private final Map<Long, Map<String, String>> bookFiles;
+    private final List<MemberQueueItem> queueMembers;
+
+    /**
+     * Whether a member has finished the current book, answered from the snapshot without a query
+     */
+    public boolean hasFinishedReading(Long memberId) {
+        return membersWhoRead.stream().anyMatch(member -> member.getId().equals(memberId));
+    }
+}
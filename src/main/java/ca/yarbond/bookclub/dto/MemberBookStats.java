@@ -0,0 +1,36 @@
+package ca.yarbond.bookclub.dto;
+
+import ca.yarbond.bookclub.model.BookStatus;
+import lombok.Getter;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Book counts of one member, per status
+ */
+@Getter
+public class MemberBookStats {
+    private final Long memberId;
+    private final Map<BookStatus, Long> countsByStatus = new EnumMap<>(BookStatus.class);
+
+    public MemberBookStats(Long memberId) {
+        this.memberId = memberId;
+    }
+
+    public void addCount(BookStatus status, long count) {
+        countsByStatus.merge(status, count, Long::sum);
+    }
+
+    public long getCount(BookStatus status) {
+        return countsByStatus.getOrDefault(status, 0L);
+    }
+
+    public long getBookCount() {
+        return countsByStatus.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public long getWishlistCount() {
+        return getCount(BookStatus.WISHLIST);
+    }
+}
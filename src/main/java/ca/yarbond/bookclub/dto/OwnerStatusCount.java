@@ -0,0 +1,16 @@
+package ca.yarbond.bookclub.dto;
+
+import ca.yarbond.bookclub.model.BookStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Number of books an owner has in one status
+ */
+@Data
+@AllArgsConstructor
+public class OwnerStatusCount {
+    private Long ownerId;
+    private BookStatus status;
+    private Long count;
+}
@@ -0,0 +1,29 @@
+package ca.yarbond.bookclub.dto;
+
+import ca.yarbond.bookclub.model.BookStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Read-only leaderboard entry: the book fields the leaderboard shows and filters on,
+ * together with its rating and read statistics
+ */
+@Getter
+@AllArgsConstructor
+public class RankedBook {
+    private final Long bookId;
+    private final String title;
+    private final String author;
+    private final String coverImagePath;
+    private final BookStatus status;
+    private final Long ownerId;
+    private final String ownerName;
+    private final boolean fiction;
+    private final Integer pageCount;
+    private final int ratingCount;
+    private final double averageReadability;
+    private final double averageContent;
+    // Bayesian-weighted average of readability and content
+    private final double score;
+    private final long readCount;
+}
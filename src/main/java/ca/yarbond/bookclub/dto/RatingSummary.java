@@ -0,0 +1,16 @@
+package ca.yarbond.bookclub.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Aggregated ratings of a single book
+ */
+@Data
+@AllArgsConstructor
+public class RatingSummary {
+    private Long bookId;
+    private Long ratingCount;
+    private Double averageReadability;
+    private Double averageContent;
+}
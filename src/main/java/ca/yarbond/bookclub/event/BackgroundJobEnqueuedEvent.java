@@ -0,0 +1,8 @@
+package ca.yarbond.bookclub.event;
+
+/**
+ * Published when a background job is stored, so workers pick it up as soon as the enqueuing
+ * transaction commits instead of on the next poll
+ */
+public class BackgroundJobEnqueuedEvent {
+}
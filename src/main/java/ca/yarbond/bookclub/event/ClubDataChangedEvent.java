@@ -0,0 +1,25 @@
+package ca.yarbond.bookclub.event;
+
+import lombok.Getter;
+
+/**
+ * Published by the services whenever club data that derived views depend on changes.
+ * Listeners that cache such views drop or rebuild them once the publishing transaction commits.
+ */
+@Getter
+public class ClubDataChangedEvent {
+
+    public enum Source {
+        BOOK,
+        RATING,
+        COMPLETION,
+        MEMBER,
+        QUEUE
+    }
+
+    private final Source source;
+
+    public ClubDataChangedEvent(Source source) {
+        this.source = source;
+    }
+}
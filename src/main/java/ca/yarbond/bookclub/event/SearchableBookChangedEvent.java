@@ -0,0 +1,28 @@
+package ca.yarbond.bookclub.event;
+
+import lombok.Getter;
+
+/**
+ * Published when text the book search indexes cover may have changed: a book was created,
+ * edited or deleted, or a member whose name appears as the owner of books was renamed.
+ * The indexes re-read the affected books once the publishing transaction commits, so a
+ * rolled back change never reaches them.
+ */
+@Getter
+public class SearchableBookChangedEvent {
+
+    public enum Scope {
+        // id is a book id
+        BOOK,
+        // id is a member id; all books the member owns are affected
+        OWNER
+    }
+
+    private final Scope scope;
+    private final Long id;
+
+    public SearchableBookChangedEvent(Scope scope, Long id) {
+        this.scope = scope;
+        this.id = id;
+    }
+}
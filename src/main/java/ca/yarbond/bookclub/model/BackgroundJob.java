@@ -0,0 +1,62 @@
+package ca.yarbond.bookclub.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A unit of book post-processing run by a background worker, retried with backoff until it
+ * succeeds or runs out of attempts
+ */
+@Entity
+@Table(name = "background_jobs")
+@Data
+@NoArgsConstructor
+public class BackgroundJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 40)
+    private JobType type;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    // Type specific input, e.g. the cover URL to download
+    @Column(length = 2000)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private JobStatus status = JobStatus.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "max_attempts", nullable = false)
+    private int maxAttempts;
+
+    @Column(name = "next_run_at", nullable = false)
+    private LocalDateTime nextRunAt = LocalDateTime.now();
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public BackgroundJob(JobType type, Long bookId, String payload, int maxAttempts) {
+        this.type = type;
+        this.bookId = bookId;
+        this.payload = payload;
+        this.maxAttempts = maxAttempts;
+    }
+}
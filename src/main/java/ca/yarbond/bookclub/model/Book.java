@@ -3,16 +3,21 @@ package ca.yarbond.bookclub.model;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.LazyGroup;
 
 import jakarta.persistence.*;
 import java.time.LocalDate;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @Entity
 @Table(name = "books")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 public class Book {
 
@@ -40,7 +45,11 @@ public class Book {
     @Enumerated(EnumType.STRING)
     private BookStatus status;
 
+    // Lazy (needs bytecode enhancement), loaded when first read; lists never touch it
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("comments")
     @Column(name = "comments", length = 1000)
+    @ToString.Exclude @EqualsAndHashCode.Exclude
     private String comments;
 
     @Column(name = "cover_image_path")
@@ -49,33 +58,59 @@ public class Book {
     @Column(name = "completion_date")
     private LocalDate completionDate;
 
-    @JdbcTypeCode(SqlTypes.JSON)
-    @Column(name = "file_paths", columnDefinition = "json")
-    private Map<String, String> filePaths = new HashMap<>();
+    // Stored files, one per format; a collection, so list and dashboard queries never load it
+    @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("format")
+    @ToString.Exclude @EqualsAndHashCode.Exclude
+    private List<BookFile> files = new ArrayList<>();
 
-    // Helper methods to manage file paths
-    public void addFilePath(String format, String path) {
-        if (filePaths == null) {
-            filePaths = new HashMap<>();
+    /**
+     * Download file names by format, in format order; files are downloaded by book id and format
+     */
+    public Map<String, String> getFilePaths() {
+        Map<String, String> filePaths = new LinkedHashMap<>();
+        for (BookFile file : files) {
+            filePaths.put(file.getFormat(), file.getDownloadName());
         }
-        filePaths.put(format.toLowerCase(), path);
+        return filePaths;
     }
 
-    public String getFilePath(String format) {
-        if (filePaths == null) {
-            return null;
+    public BookFile getFile(String format) {
+        String formatLower = format.toLowerCase();
+        for (BookFile file : files) {
+            if (file.getFormat().equals(formatLower)) {
+                return file;
+            }
         }
-        return filePaths.get(format.toLowerCase());
+        return null;
+    }
+
+    public String getFilePath(String format) {
+        BookFile file = getFile(format);
+        return file != null ? file.getStoredName() : null;
+    }
+
+    /**
+     * Attach a stored file to this book
+     *
+     * @param file The file metadata; its format is stored lowercase
+     */
+    public void addFile(BookFile file) {
+        file.setFormat(file.getFormat().toLowerCase());
+        file.setBook(this);
+        files.add(file);
     }
 
     /**
-     * Remove a file path for the given format
+     * Remove the file of the given format; its row is deleted on flush
      *
      * @param format The file format (epub, pdf, mobi)
      */
-    public void removeFilePath(String format) {
-        if (this.filePaths != null) {
-            this.filePaths.remove(format);
+    public void removeFile(String format) {
+        BookFile file = getFile(format);
+        if (file != null) {
+            files.remove(file);
+            file.setBook(null);
         }
     }
-}
\ No newline at end of file
+}
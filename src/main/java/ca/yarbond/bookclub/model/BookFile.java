@@ -0,0 +1,72 @@
+package ca.yarbond.bookclub.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * A stored file of a book in one format (epub, pdf, mobi), with the metadata
+ * needed to serve it without touching the disk
+ */
+@Entity
+@Table(name = "book_files")
+@Data
+@NoArgsConstructor
+public class BookFile {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false)
+    @ToString.Exclude @EqualsAndHashCode.Exclude
+    private Book book;
+
+    // Lowercase file extension
+    @Column(nullable = false, length = 10)
+    private String format;
+
+    // <sha256>.<ext> in the content-addressed store, shared by books with identical files;
+    // older rows whose file was missing keep their flat name
+    @Column(name = "stored_name", nullable = false)
+    private String storedName;
+
+    // Readable title-author file name, sent as the download name
+    @Column(name = "display_name")
+    private String displayName;
+
+    // Size in bytes; null for files migrated while missing from disk
+    private Long size;
+
+    // Hex SHA-256 of the content, also used as the download ETag
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "uploaded_at", nullable = false)
+    private LocalDateTime uploadedAt = LocalDateTime.now();
+
+    public BookFile(String format, String storedName, String displayName, Long size, String sha256,
+                    String contentType) {
+        this.format = format;
+        this.storedName = storedName;
+        this.displayName = displayName;
+        this.size = size;
+        this.sha256 = sha256;
+        this.contentType = contentType;
+    }
+
+    /**
+     * File name for Content-Disposition and the detail page
+     */
+    public String getDownloadName() {
+        return displayName != null ? displayName : storedName;
+    }
+}
@@ -0,0 +1,63 @@
+package ca.yarbond.bookclub.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Running rating aggregates of a book, so averages are read without touching the ratings table.
+ * Sums of squares are kept alongside the sums so the spread of ratings can be derived as well.
+ */
+@Entity
+@Table(name = "book_rating_summaries")
+@Data
+@NoArgsConstructor
+public class BookRatingSummary {
+
+    @Id
+    @Column(name = "book_id")
+    private Long bookId;
+
+    @Column(name = "rating_count", nullable = false)
+    private int ratingCount;
+
+    @Column(name = "readability_sum", nullable = false)
+    private long readabilitySum;
+
+    @Column(name = "readability_sum_of_squares", nullable = false)
+    private long readabilitySumOfSquares;
+
+    @Column(name = "content_sum", nullable = false)
+    private long contentSum;
+
+    @Column(name = "content_sum_of_squares", nullable = false)
+    private long contentSumOfSquares;
+
+    public BookRatingSummary(Long bookId) {
+        this.bookId = bookId;
+    }
+
+    public double getAverageReadability() {
+        return ratingCount == 0 ? 0 : (double) readabilitySum / ratingCount;
+    }
+
+    public double getAverageContent() {
+        return ratingCount == 0 ? 0 : (double) contentSum / ratingCount;
+    }
+
+    public double getReadabilityStandardDeviation() {
+        return standardDeviation(readabilitySum, readabilitySumOfSquares);
+    }
+
+    public double getContentStandardDeviation() {
+        return standardDeviation(contentSum, contentSumOfSquares);
+    }
+
+    private double standardDeviation(long sum, long sumOfSquares) {
+        if (ratingCount == 0) {
+            return 0;
+        }
+        double mean = (double) sum / ratingCount;
+        return Math.sqrt(Math.max(0, (double) sumOfSquares / ratingCount - mean * mean));
+    }
+}
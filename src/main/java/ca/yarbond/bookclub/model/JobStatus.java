@@ -0,0 +1,8 @@
+package ca.yarbond.bookclub.model;
+
+public enum JobStatus {
+    PENDING,    // Waiting for its first run or a retry
+    RUNNING,    // Claimed by a worker
+    SUCCEEDED,
+    FAILED      // Gave up after the last attempt
+}
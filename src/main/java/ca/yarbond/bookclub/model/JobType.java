@@ -0,0 +1,18 @@
+package ca.yarbond.bookclub.model;
+
+public enum JobType {
+    EXTRACT_EPUB_COVER("Extracting cover"),       // Cover from the book's stored EPUB
+    DOWNLOAD_REMOTE_COVER("Downloading cover"),   // Cover from the URL in the payload
+    ENRICH_METADATA("Looking up book details"),   // Missing page count, description and cover from Google Books
+    GENERATE_THUMBNAILS("Resizing cover");        // Cover variants for the cover named in the payload
+
+    private final String label;
+
+    JobType(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -1,5 +1,8 @@
 package ca.yarbond.bookclub.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -11,6 +14,8 @@ import java.util.List;
 
 @Entity
 @Table(name = "members")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 public class Member {
 
@@ -2,6 +2,9 @@ package ca.yarbond.bookclub.model;
 
 import lombok.Data;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import jakarta.persistence.*;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -10,6 +13,8 @@ import java.time.LocalDate;
 
 @Entity
 @Table(name = "member_queue")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 public class MemberQueueItem {
 
@@ -22,6 +27,11 @@ public class MemberQueueItem {
     @ToString.Exclude @EqualsAndHashCode.Exclude
     private Member member;
 
-    @Column(nullable = false)
+    // Sparse, distinct sort key; the queue is read circularly from the head rank in MemberQueueState
+    @Column(name = "queue_rank", nullable = false, unique = true)
+    private long queueRank;
+
+    // Place in the queue counted from the current member, filled in when the queue is read
+    @Transient
     private int position;
 }
\ No newline at end of file
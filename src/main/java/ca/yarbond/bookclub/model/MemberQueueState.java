@@ -0,0 +1,36 @@
+package ca.yarbond.bookclub.model;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Head pointer of the circular member queue.
+ * The queue starts at the first member whose rank is at least headRank and wraps around,
+ * so rotating the queue only moves this pointer.
+ */
+@Entity
+@Table(name = "member_queue_state")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Data
+@NoArgsConstructor
+public class MemberQueueState {
+
+    // The table holds a single row
+    public static final long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(name = "head_rank", nullable = false)
+    private long headRank;
+
+    public MemberQueueState(long headRank) {
+        this.id = SINGLETON_ID;
+        this.headRank = headRank;
+    }
+}
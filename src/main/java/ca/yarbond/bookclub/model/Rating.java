@@ -2,6 +2,9 @@ package ca.yarbond.bookclub.model;
 
 import lombok.Data;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import jakarta.persistence.*;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -10,6 +13,8 @@ import java.time.LocalDate;
 
 @Entity
 @Table(name = "ratings")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Data
 public class Rating {
 
@@ -0,0 +1,42 @@
+package ca.yarbond.bookclub.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One distinct book file content in the content-addressed store, with the number of
+ * book_files rows using it; the file is deleted when the last one goes
+ */
+@Entity
+@Table(name = "stored_files")
+@Data
+@NoArgsConstructor
+public class StoredFile {
+
+    // <sha256>.<ext>, kept at aa/bb/<sha256>.<ext> in the books storage location
+    @Id
+    @Column(name = "stored_name")
+    private String storedName;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public StoredFile(String storedName, String sha256, long size) {
+        this.storedName = storedName;
+        this.sha256 = sha256;
+        this.size = size;
+        this.refCount = 1;
+    }
+}
@@ -0,0 +1,55 @@
+package ca.yarbond.bookclub.repository;
+
+import ca.yarbond.bookclub.model.BackgroundJob;
+import ca.yarbond.bookclub.model.JobStatus;
+import ca.yarbond.bookclub.model.JobType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BackgroundJobRepository extends JpaRepository<BackgroundJob, Long> {
+
+    // Pending jobs whose time has come, oldest first
+    @Query("SELECT j.id FROM BackgroundJob j WHERE j.status = ca.yarbond.bookclub.model.JobStatus.PENDING " +
+            "AND j.nextRunAt <= :now ORDER BY j.nextRunAt")
+    List<Long> findDueJobIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    List<BackgroundJob> findByBookIdAndStatusInOrderByCreatedAt(Long bookId, Collection<JobStatus> statuses);
+
+    List<BackgroundJob> findTop20ByBookIdOrderByCreatedAtDesc(Long bookId);
+
+    boolean existsByBookIdAndTypeAndStatusIn(Long bookId, JobType type, Collection<JobStatus> statuses);
+
+    /**
+     * Claims a pending job for a worker in a single atomic UPDATE, counting the attempt
+     *
+     * @return 1 if this caller got the job, 0 if another worker claimed it first
+     */
+    @Modifying
+    @Query("UPDATE BackgroundJob j SET j.status = ca.yarbond.bookclub.model.JobStatus.RUNNING, " +
+            "j.attempts = j.attempts + 1, j.updatedAt = :now " +
+            "WHERE j.id = :id AND j.status = ca.yarbond.bookclub.model.JobStatus.PENDING")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Puts jobs left running by a previous shutdown back in the queue
+     */
+    @Modifying
+    @Query("UPDATE BackgroundJob j SET j.status = ca.yarbond.bookclub.model.JobStatus.PENDING, " +
+            "j.nextRunAt = :now, j.updatedAt = :now " +
+            "WHERE j.status = ca.yarbond.bookclub.model.JobStatus.RUNNING")
+    int requeueRunning(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM BackgroundJob j WHERE j.status = ca.yarbond.bookclub.model.JobStatus.SUCCEEDED " +
+            "AND j.updatedAt < :before")
+    int deleteSucceededBefore(@Param("before") LocalDateTime before);
+}
@@ -1,5 +1,6 @@
 package ca.yarbond.bookclub.repository;
 
+import ca.yarbond.bookclub.dto.BookReadCount;
 import ca.yarbond.bookclub.model.BookCompletionRecord;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -17,6 +18,10 @@ public interface BookCompletionRepository extends JpaRepository<BookCompletionRe
     
     @Query("SELECT COUNT(r) FROM BookCompletionRecord r WHERE r.book.id = :bookId")
     int countCompletionsForBook(@Param("bookId") Long bookId);
+
+    @Query("SELECT new ca.yarbond.bookclub.dto.BookReadCount(r.book.id, COUNT(r)) " +
+           "FROM BookCompletionRecord r GROUP BY r.book.id")
+    List<BookReadCount> countCompletionsPerBook();
     
     boolean existsByBookIdAndMemberId(Long bookId, Long memberId);
 }
\ No newline at end of file
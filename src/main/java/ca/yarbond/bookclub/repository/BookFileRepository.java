@@ -0,0 +1,23 @@
+package ca.yarbond.bookclub.repository;
+
+import ca.yarbond.bookclub.model.BookFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookFileRepository extends JpaRepository<BookFile, Long> {
+
+    Optional<BookFile> findByBookIdAndFormat(Long bookId, String format);
+
+    boolean existsByStoredName(String storedName);
+
+    // Download links for the books of one list page
+    @Query("SELECT f FROM BookFile f WHERE f.book.id IN :bookIds ORDER BY f.format")
+    List<BookFile> findByBookIds(@Param("bookIds") Collection<Long> bookIds);
+}
@@ -0,0 +1,68 @@
+package ca.yarbond.bookclub.repository;
+
+import ca.yarbond.bookclub.model.BookRatingSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BookRatingSummaryRepository extends JpaRepository<BookRatingSummary, Long> {
+
+    List<BookRatingSummary> findByBookIdIn(Collection<Long> bookIds);
+
+    /**
+     * Applies a rating change to a book's summary in a single atomic UPDATE
+     *
+     * @return Number of rows updated, 0 if the book has no summary yet
+     */
+    @Modifying
+    @Query("UPDATE BookRatingSummary s SET " +
+            "s.ratingCount = s.ratingCount + :countDelta, " +
+            "s.readabilitySum = s.readabilitySum + :readabilityDelta, " +
+            "s.readabilitySumOfSquares = s.readabilitySumOfSquares + :readabilitySquaresDelta, " +
+            "s.contentSum = s.contentSum + :contentDelta, " +
+            "s.contentSumOfSquares = s.contentSumOfSquares + :contentSquaresDelta " +
+            "WHERE s.bookId = :bookId")
+    int applyDelta(@Param("bookId") Long bookId,
+                   @Param("countDelta") int countDelta,
+                   @Param("readabilityDelta") long readabilityDelta,
+                   @Param("readabilitySquaresDelta") long readabilitySquaresDelta,
+                   @Param("contentDelta") long contentDelta,
+                   @Param("contentSquaresDelta") long contentSquaresDelta);
+
+    /**
+     * Creates an empty summary for a book's first rating. Runs in its own transaction, so when a
+     * concurrent first rating inserts it first, the duplicate key fails only this insert and
+     * not the rating's transaction.
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("INSERT INTO BookRatingSummary (bookId, ratingCount, readabilitySum, readabilitySumOfSquares, " +
+            "contentSum, contentSumOfSquares) VALUES (:bookId, 0, 0, 0, 0, 0)")
+    int insertEmpty(@Param("bookId") Long bookId);
+
+    @Modifying
+    @Query(value = "DELETE FROM book_rating_summaries", nativeQuery = true)
+    void deleteAllSummaries();
+
+    /**
+     * Recomputes every summary from the ratings table
+     */
+    @Modifying
+    @Query(value = "INSERT INTO book_rating_summaries (book_id, rating_count, readability_sum, " +
+            "readability_sum_of_squares, content_sum, content_sum_of_squares) " +
+            "SELECT book_id, COUNT(*), " +
+            "SUM(COALESCE(readability_rating, 0)), " +
+            "SUM(COALESCE(readability_rating, 0) * COALESCE(readability_rating, 0)), " +
+            "SUM(COALESCE(content_rating, 0)), " +
+            "SUM(COALESCE(content_rating, 0) * COALESCE(content_rating, 0)) " +
+            "FROM ratings GROUP BY book_id", nativeQuery = true)
+    int insertSummariesFromRatings();
+}
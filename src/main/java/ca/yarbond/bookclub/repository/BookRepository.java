@@ -1,26 +1,42 @@
 package ca.yarbond.bookclub.repository;
 
+import ca.yarbond.bookclub.dto.BookComments;
+import ca.yarbond.bookclub.dto.BookListItem;
+import ca.yarbond.bookclub.dto.OwnerStatusCount;
 import ca.yarbond.bookclub.model.Book;
 import ca.yarbond.bookclub.model.BookStatus;
 import ca.yarbond.bookclub.model.Member;
-import org.springframework.data.domain.Page;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book>, BookRepositoryCustom {
+
+    // List rows select only the rendered columns, with the owner's name from a single join
+    String LIST_ITEM_COLUMNS = "b.id, b.title, b.author, b.coverImagePath, b.status, o.id, o.name, " +
+            "b.fiction, b.pageCount, b.completionDate";
+
+    // Enough of the comments for a book card, see app.ui.book-description-max-length
+    int DESCRIPTION_EXCERPT_LENGTH = 500;
 
     // Non-paginated methods
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Book> findByStatus(BookStatus status);
     List<Book> findByOwner(Member owner);
     List<Book> findByOwnerId(Long ownerId);
     List<Book> findByFiction(boolean isFiction);
     List<Book> findByOwnerAndStatus(Member owner, BookStatus status);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Book> findByOwnerIdAndStatus(Long ownerId, BookStatus status);
 
     @Query("SELECT b FROM Book b WHERE b.status = 'COMPLETED' ORDER BY b.completionDate DESC")
@@ -30,62 +46,37 @@ public interface BookRepository extends JpaRepository<Book, Long> {
             nativeQuery = true)
     List<Book> findTop5RecentlyCompletedBooks();
 
-    @Query("SELECT b FROM Book b WHERE " +
-            "LOWER(b.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(b.author) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(b.comments) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(b.owner.name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    List<Book> searchBooks(@Param("searchTerm") String searchTerm);
-    
-    // Paginated methods
-    Page<Book> findAll(Pageable pageable);
-    
-    Page<Book> findByStatus(BookStatus status, Pageable pageable);
-    
-    Page<Book> findByOwnerId(Long ownerId, Pageable pageable);
-    
-    Page<Book> findByOwnerIdAndStatus(Long ownerId, BookStatus status, Pageable pageable);
-    
-    @Query("SELECT b FROM Book b WHERE " +
-            "LOWER(b.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(b.author) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(b.comments) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(b.owner.name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    Page<Book> searchBooks(@Param("searchTerm") String searchTerm, Pageable pageable);
-    
-    // Enhanced search methods with combined filters
-    @Query("SELECT b FROM Book b WHERE " +
-            "(LOWER(b.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(b.author) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(b.comments) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(b.owner.name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) " +
-            "AND b.status = :status")
-    Page<Book> searchBooksByStatus(
-            @Param("searchTerm") String searchTerm, 
-            @Param("status") BookStatus status, 
-            Pageable pageable);
-    
-    @Query("SELECT b FROM Book b WHERE " +
-            "(LOWER(b.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(b.author) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(b.comments) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(b.owner.name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) " +
-            "AND b.owner.id = :ownerId")
-    Page<Book> searchBooksByOwnerId(
-            @Param("searchTerm") String searchTerm, 
-            @Param("ownerId") Long ownerId, 
-            Pageable pageable);
-    
-    @Query("SELECT b FROM Book b WHERE " +
-            "(LOWER(b.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(b.author) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(b.comments) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-            "LOWER(b.owner.name) LIKE LOWER(CONCAT('%', :searchTerm, '%'))) " +
-            "AND b.status = :status " +
-            "AND b.owner.id = :ownerId")
-    Page<Book> searchBooksByStatusAndOwnerId(
-            @Param("searchTerm") String searchTerm, 
-            @Param("status") BookStatus status, 
-            @Param("ownerId") Long ownerId, 
-            Pageable pageable);
-}
\ No newline at end of file
+    @Query("SELECT new ca.yarbond.bookclub.dto.BookListItem(" + LIST_ITEM_COLUMNS + ") " +
+           "FROM Book b JOIN b.owner o WHERE b.status = 'COMPLETED' ORDER BY b.completionDate DESC, b.id DESC")
+    List<BookListItem> findRecentlyCompletedListItems(Pageable pageable);
+
+    @Query("SELECT new ca.yarbond.bookclub.dto.BookListItem(" + LIST_ITEM_COLUMNS + ") " +
+           "FROM Book b JOIN b.owner o WHERE o.id = :ownerId AND b.status = :status ORDER BY b.id")
+    List<BookListItem> findListItemsByOwnerIdAndStatus(@Param("ownerId") Long ownerId,
+                                                       @Param("status") BookStatus status);
+
+    // Same as above, with the start of the comments for book cards
+    @Query("SELECT new ca.yarbond.bookclub.dto.BookListItem(" + LIST_ITEM_COLUMNS + ", " +
+           "SUBSTRING(b.comments, 1, " + DESCRIPTION_EXCERPT_LENGTH + ")) " +
+           "FROM Book b JOIN b.owner o WHERE o.id = :ownerId AND b.status = :status ORDER BY b.id")
+    List<BookListItem> findCardItemsByOwnerIdAndStatus(@Param("ownerId") Long ownerId,
+                                                       @Param("status") BookStatus status);
+
+    // Comments are lazy on Book; the search index reads them in bulk instead of one book at a time
+    @Query("SELECT new ca.yarbond.bookclub.dto.BookComments(b.id, b.comments) FROM Book b WHERE b.comments IS NOT NULL")
+    List<BookComments> findAllComments();
+
+    @Query("SELECT new ca.yarbond.bookclub.dto.BookComments(b.id, b.comments) FROM Book b " +
+           "WHERE b.owner.id = :ownerId AND b.comments IS NOT NULL")
+    List<BookComments> findCommentsByOwnerId(@Param("ownerId") Long ownerId);
+
+    // Search index matches
+    List<Book> findByIdIn(Collection<Long> ids);
+
+    // Book counts per owner and status, without loading any books
+    @Query("SELECT new ca.yarbond.bookclub.dto.OwnerStatusCount(b.owner.id, b.status, COUNT(b)) " +
+           "FROM Book b GROUP BY b.owner.id, b.status")
+    List<OwnerStatusCount> countByOwnerAndStatus();
+
+    // Paginated and filtered queries go through findAll(Specification, Pageable), see BookSpecifications
+}
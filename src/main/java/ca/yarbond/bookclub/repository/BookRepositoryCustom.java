@@ -0,0 +1,38 @@
+package ca.yarbond.bookclub.repository;
+
+import ca.yarbond.bookclub.dto.BookCursor;
+import ca.yarbond.bookclub.dto.BookFilter;
+import ca.yarbond.bookclub.dto.BookListItem;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * Book queries that Spring Data cannot derive from method names
+ */
+public interface BookRepositoryCustom {
+
+    /**
+     * Keyset (seek) pagination over books without OFFSET or COUNT.
+     * Completed books are ordered by completionDate DESC, id DESC; everything else by id DESC.
+     *
+     * @param filter Filters to apply
+     * @param cursor Position to read from, or null for the first page
+     * @param size Page size
+     * @return The page, in display order, with hasNext telling whether more books
+     *         exist in the cursor's direction
+     */
+    Slice<BookListItem> findSliceByKeyset(BookFilter filter, BookCursor cursor, int size);
+
+    /**
+     * Page of list rows matching the filter, in the pageable's sort order
+     */
+    Page<BookListItem> findListPage(BookFilter filter, Pageable pageable);
+
+    /**
+     * All list rows matching the filter, in no particular order
+     */
+    List<BookListItem> findListItems(BookFilter filter);
+}
@@ -0,0 +1,170 @@
+package ca.yarbond.bookclub.repository;
+
+import ca.yarbond.bookclub.dto.BookCursor;
+import ca.yarbond.bookclub.dto.BookFilter;
+import ca.yarbond.bookclub.dto.BookListItem;
+import ca.yarbond.bookclub.model.Book;
+import ca.yarbond.bookclub.model.BookStatus;
+import ca.yarbond.bookclub.model.Member;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<BookListItem> findSliceByKeyset(BookFilter filter, BookCursor cursor, int size) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookListItem> query = cb.createQuery(BookListItem.class);
+        Root<Book> book = query.from(Book.class);
+        selectListItem(cb, query, book);
+
+        boolean byCompletionDate = filter.getStatus() == BookStatus.COMPLETED;
+        boolean backward = cursor != null && cursor.isBackward();
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(BookSpecifications.matching(filter).toPredicate(book, query, cb));
+        if (cursor != null) {
+            predicates.add(byCompletionDate
+                    ? seekByCompletionDate(cb, book, cursor)
+                    : seekById(cb, book, cursor));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+
+        // Reading backward runs the display order in reverse and flips the result afterwards
+        query.orderBy(byCompletionDate
+                ? completionDateOrder(cb, book, backward)
+                : List.of(backward ? cb.asc(book.get("id")) : cb.desc(book.get("id"))));
+
+        // One extra row tells whether another page exists without a COUNT query
+        List<BookListItem> books = new ArrayList<>(entityManager.createQuery(query)
+                .setMaxResults(size + 1)
+                .getResultList());
+
+        boolean hasMore = books.size() > size;
+        if (hasMore) {
+            books.remove(size);
+        }
+        if (backward) {
+            Collections.reverse(books);
+        }
+
+        return new SliceImpl<>(books, PageRequest.of(0, size), hasMore);
+    }
+
+    @Override
+    public Page<BookListItem> findListPage(BookFilter filter, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookListItem> query = cb.createQuery(BookListItem.class);
+        Root<Book> book = query.from(Book.class);
+        selectListItem(cb, query, book);
+        query.where(BookSpecifications.matching(filter).toPredicate(book, query, cb));
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), book, cb));
+
+        List<BookListItem> books = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+        Root<Book> countRoot = countQuery.from(Book.class);
+        countQuery.select(cb.count(countRoot))
+                .where(BookSpecifications.matching(filter).toPredicate(countRoot, countQuery, cb));
+        long total = entityManager.createQuery(countQuery).getSingleResult();
+
+        return new PageImpl<>(books, pageable, total);
+    }
+
+    @Override
+    public List<BookListItem> findListItems(BookFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookListItem> query = cb.createQuery(BookListItem.class);
+        Root<Book> book = query.from(Book.class);
+        selectListItem(cb, query, book);
+        query.where(BookSpecifications.matching(filter).toPredicate(book, query, cb));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    /**
+     * Selects only the list columns, joining the owner for its name (see BookRepository.LIST_ITEM_COLUMNS)
+     */
+    private void selectListItem(CriteriaBuilder cb, CriteriaQuery<BookListItem> query, Root<Book> book) {
+        Join<Book, Member> owner = book.join("owner");
+        query.select(cb.construct(BookListItem.class,
+                book.get("id"),
+                book.get("title"),
+                book.get("author"),
+                book.get("coverImagePath"),
+                book.get("status"),
+                owner.get("id"),
+                owner.get("name"),
+                book.get("fiction"),
+                book.get("pageCount"),
+                book.get("completionDate")));
+    }
+
+    private Predicate seekById(CriteriaBuilder cb, Root<Book> book, BookCursor cursor) {
+        Path<Long> id = book.get("id");
+        return cursor.isBackward() ? cb.greaterThan(id, cursor.getId()) : cb.lessThan(id, cursor.getId());
+    }
+
+    /**
+     * Seek condition for the (completionDate DESC NULLS LAST, id DESC) order
+     */
+    private Predicate seekByCompletionDate(CriteriaBuilder cb, Root<Book> book, BookCursor cursor) {
+        Path<LocalDate> date = book.get("completionDate");
+        Path<Long> id = book.get("id");
+        LocalDate cursorDate = cursor.getCompletionDate();
+
+        if (!cursor.isBackward()) {
+            if (cursorDate == null) {
+                return cb.and(cb.isNull(date), cb.lessThan(id, cursor.getId()));
+            }
+            return cb.or(
+                    cb.lessThan(date, cursorDate),
+                    cb.and(cb.equal(date, cursorDate), cb.lessThan(id, cursor.getId())),
+                    cb.isNull(date));
+        }
+
+        if (cursorDate == null) {
+            return cb.or(cb.isNotNull(date), cb.and(cb.isNull(date), cb.greaterThan(id, cursor.getId())));
+        }
+        return cb.or(
+                cb.greaterThan(date, cursorDate),
+                cb.and(cb.equal(date, cursorDate), cb.greaterThan(id, cursor.getId())));
+    }
+
+    private List<Order> completionDateOrder(CriteriaBuilder cb, Root<Book> book, boolean backward) {
+        // Books without a completion date go last in display order
+        Expression<Integer> nullsLast = cb.<Integer>selectCase()
+                .when(cb.isNull(book.get("completionDate")), 1)
+                .otherwise(0);
+
+        if (backward) {
+            return List.of(cb.desc(nullsLast), cb.asc(book.get("completionDate")), cb.asc(book.get("id")));
+        }
+        return List.of(cb.asc(nullsLast), cb.desc(book.get("completionDate")), cb.desc(book.get("id")));
+    }
+}
@@ -0,0 +1,62 @@
+package ca.yarbond.bookclub.repository;
+
+import ca.yarbond.bookclub.dto.BookFilter;
+import ca.yarbond.bookclub.model.Book;
+import ca.yarbond.bookclub.model.BookFile;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds book queries from a {@link BookFilter}, adding only the predicates that are present
+ */
+public final class BookSpecifications {
+
+    private BookSpecifications() {
+    }
+
+    /**
+     * Specification matching every filter set on the given filter.
+     * Owner and status come first so the (owner_id, status) index can be used,
+     * the id restriction from the search index comes last.
+     */
+    public static Specification<Book> matching(BookFilter filter) {
+        return (book, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (filter.getOwnerId() != null) {
+                predicates.add(cb.equal(book.get("owner").get("id"), filter.getOwnerId()));
+            }
+            if (filter.getStatus() != null) {
+                predicates.add(cb.equal(book.get("status"), filter.getStatus()));
+            }
+            if (filter.getFiction() != null) {
+                predicates.add(cb.equal(book.get("fiction"), filter.getFiction()));
+            }
+            if (filter.getMinPageCount() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(book.get("pageCount"), filter.getMinPageCount()));
+            }
+            if (filter.getMaxPageCount() != null) {
+                predicates.add(cb.lessThanOrEqualTo(book.get("pageCount"), filter.getMaxPageCount()));
+            }
+            if (filter.getFileFormat() != null) {
+                // EXISTS on book_files, served by the (format, book_id) index
+                Subquery<Long> files = query.subquery(Long.class);
+                Root<BookFile> file = files.from(BookFile.class);
+                files.select(file.get("id")).where(
+                        cb.equal(file.get("book"), book),
+                        cb.equal(file.get("format"), filter.getFileFormat().toLowerCase()));
+                predicates.add(cb.exists(files));
+            }
+            if (filter.getIds() != null) {
+                predicates.add(book.get("id").in(filter.getIds()));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
@@ -2,8 +2,10 @@ package ca.yarbond.bookclub.repository;
 
 import ca.yarbond.bookclub.model.Member;
 import ca.yarbond.bookclub.model.MemberQueueItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,9 +14,11 @@ import java.util.Optional;
 @Repository
 public interface MemberQueueRepository extends JpaRepository<MemberQueueItem, Long> {
 
-    List<MemberQueueItem> findByOrderByPositionAsc();
-
-    Optional<MemberQueueItem> findByPosition(int position);
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<MemberQueueItem> findByOrderByQueueRankAsc();
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<MemberQueueItem> findByMember(Member member);
+
+    boolean existsByQueueRank(long queueRank);
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package ca.yarbond.bookclub.repository;
+
+import ca.yarbond.bookclub.model.MemberQueueState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface MemberQueueStateRepository extends JpaRepository<MemberQueueState, Long> {
+
+    /**
+     * Reads the state row with a write lock held until the transaction ends,
+     * so queue changes that pick new ranks run one at a time
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<MemberQueueState> findLockedById(Long id);
+}
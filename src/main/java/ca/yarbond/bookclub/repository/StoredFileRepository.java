@@ -0,0 +1,58 @@
+package ca.yarbond.bookclub.repository;
+
+import ca.yarbond.bookclub.model.StoredFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, String> {
+
+    /**
+     * Adds a reference to stored content in a single atomic UPDATE
+     *
+     * @return Number of rows updated, 0 if the content isn't stored yet
+     */
+    @Modifying
+    @Query("UPDATE StoredFile s SET s.refCount = s.refCount + 1 WHERE s.storedName = :storedName")
+    int incrementRefCount(@Param("storedName") String storedName);
+
+    /**
+     * Starts tracking new content with no references yet. Runs in its own transaction, so when a
+     * concurrent upload of the same content inserts it first, the duplicate key fails only this
+     * insert and not the upload's transaction.
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("INSERT INTO StoredFile (storedName, sha256, size, refCount, createdAt) " +
+            "VALUES (:storedName, :sha256, :size, 0, :createdAt)")
+    int insertUnreferenced(@Param("storedName") String storedName,
+                           @Param("sha256") String sha256,
+                           @Param("size") long size,
+                           @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * Drops a reference to stored content
+     *
+     * @return Number of rows updated, 0 if the content isn't tracked
+     */
+    @Modifying
+    @Query("UPDATE StoredFile s SET s.refCount = s.refCount - 1 " +
+            "WHERE s.storedName = :storedName AND s.refCount > 0")
+    int decrementRefCount(@Param("storedName") String storedName);
+
+    /**
+     * Removes the content's row once nothing references it
+     *
+     * @return 1 if the row was removed and its file can be deleted
+     */
+    @Modifying
+    @Query("DELETE FROM StoredFile s WHERE s.storedName = :storedName AND s.refCount <= 0")
+    int deleteIfUnreferenced(@Param("storedName") String storedName);
+}
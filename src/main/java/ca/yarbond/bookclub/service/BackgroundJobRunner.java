@@ -0,0 +1,164 @@
+package ca.yarbond.bookclub.service;
+
+import ca.yarbond.bookclub.config.BackgroundJobConfig;
+import ca.yarbond.bookclub.dto.BookSearchDto;
+import ca.yarbond.bookclub.event.BackgroundJobEnqueuedEvent;
+import ca.yarbond.bookclub.model.BackgroundJob;
+import ca.yarbond.bookclub.model.Book;
+import ca.yarbond.bookclub.model.BookFile;
+import ca.yarbond.bookclub.model.JobType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Hands due background jobs to the worker pool and runs them. Jobs are picked up right after
+ * they are enqueued and by a periodic poll, which also catches retries and jobs that didn't fit
+ * in the pool. A job that throws is retried by {@link BackgroundJobService#markFailed}.
+ */
+@Service
+public class BackgroundJobRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackgroundJobRunner.class);
+
+    // Succeeded jobs are kept this long for the status view
+    private static final int SUCCEEDED_RETENTION_DAYS = 7;
+
+    private final BackgroundJobService backgroundJobService;
+    private final BookService bookService;
+    private final FileStorageService fileStorageService;
+    private final GoogleBooksService googleBooksService;
+    private final CoverThumbnailService coverThumbnailService;
+    private final ThreadPoolTaskExecutor executor;
+
+    @Autowired
+    public BackgroundJobRunner(BackgroundJobService backgroundJobService, BookService bookService,
+                               FileStorageService fileStorageService, GoogleBooksService googleBooksService,
+                               CoverThumbnailService coverThumbnailService,
+                               @Qualifier(BackgroundJobConfig.EXECUTOR) ThreadPoolTaskExecutor executor) {
+        this.backgroundJobService = backgroundJobService;
+        this.bookService = bookService;
+        this.fileStorageService = fileStorageService;
+        this.googleBooksService = googleBooksService;
+        this.coverThumbnailService = coverThumbnailService;
+        this.executor = executor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void requeueInterruptedJobs() {
+        int requeued = backgroundJobService.requeueInterruptedJobs();
+        if (requeued > 0) {
+            logger.info("Requeued {} background jobs interrupted by the last shutdown", requeued);
+        }
+        dispatchDueJobs();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onJobEnqueued(BackgroundJobEnqueuedEvent event) {
+        dispatchDueJobs();
+    }
+
+    /**
+     * Claims as many due jobs as the pool has room for and submits them
+     */
+    @Scheduled(fixedDelayString = "${app.jobs.poll-interval:5000}")
+    public synchronized void dispatchDueJobs() {
+        int room = executor.getMaxPoolSize() + executor.getQueueCapacity()
+                - executor.getActiveCount() - executor.getQueueSize();
+        if (room <= 0) {
+            return;
+        }
+
+        for (Long jobId : backgroundJobService.findDueJobIds(room)) {
+            if (!backgroundJobService.claim(jobId)) {
+                continue;
+            }
+            try {
+                executor.execute(() -> run(jobId));
+            } catch (TaskRejectedException e) {
+                // Pool filled up meanwhile; the next poll gets it
+                backgroundJobService.release(jobId);
+                return;
+            }
+        }
+    }
+
+    @Scheduled(cron = "0 30 3 * * ?")
+    public void deleteOldJobs() {
+        int deleted = backgroundJobService.deleteSucceededBefore(
+                LocalDateTime.now().minusDays(SUCCEEDED_RETENTION_DAYS));
+        logger.debug("Deleted {} succeeded background jobs", deleted);
+    }
+
+    private void run(Long jobId) {
+        BackgroundJob job = backgroundJobService.getJob(jobId);
+        try {
+            switch (job.getType()) {
+                case EXTRACT_EPUB_COVER -> extractEpubCover(job);
+                case DOWNLOAD_REMOTE_COVER -> downloadRemoteCover(job);
+                case ENRICH_METADATA -> enrichMetadata(job);
+                case GENERATE_THUMBNAILS -> coverThumbnailService.generateAll(job.getPayload());
+            }
+            backgroundJobService.markSucceeded(jobId);
+        } catch (Exception e) {
+            logger.warn("Background job {} ({} for book {}) failed on attempt {}: {}",
+                    jobId, job.getType(), job.getBookId(), job.getAttempts(), e.getMessage());
+            // Cleared while the failure is recorded, so the database write isn't interrupted too
+            boolean interrupted = Thread.interrupted() || e instanceof InterruptedException;
+            backgroundJobService.markFailed(jobId, e);
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void extractEpubCover(BackgroundJob job) {
+        Optional<BookFile> epub = fileStorageService.findBookFile(job.getBookId(), "epub");
+        if (epub.isEmpty()) {
+            // Removed before the job ran
+            return;
+        }
+        String coverPath = fileStorageService.extractCoverFromEpub(epub.get());
+        if (coverPath != null) {
+            bookService.setCoverImage(job.getBookId(), coverPath);
+        }
+    }
+
+    private void downloadRemoteCover(BackgroundJob job) {
+        String coverPath = fileStorageService.downloadRemoteCoverImage(job.getPayload());
+        bookService.setCoverImage(job.getBookId(), coverPath);
+    }
+
+    /**
+     * Fills in the page count, description and cover of a book from Google Books, where missing
+     */
+    private void enrichMetadata(BackgroundJob job) throws IOException, InterruptedException {
+        Book book = bookService.getBookById(job.getBookId());
+        Optional<BookSearchDto> match = googleBooksService.findBestMatch(book.getTitle(), book.getAuthor());
+        if (match.isEmpty()) {
+            return;
+        }
+
+        BookSearchDto details = match.get();
+        bookService.applyMissingMetadata(book.getId(), details.getPageCount(), details.getDescription());
+
+        // A cover from an EPUB or a URL the member chose takes precedence
+        if (book.getCoverImagePath() == null && details.getCoverUrl() != null
+                && !backgroundJobService.hasActiveJob(book.getId(), JobType.EXTRACT_EPUB_COVER)
+                && !backgroundJobService.hasActiveJob(book.getId(), JobType.DOWNLOAD_REMOTE_COVER)) {
+            backgroundJobService.enqueue(JobType.DOWNLOAD_REMOTE_COVER, book.getId(), details.getCoverUrl());
+        }
+    }
+}
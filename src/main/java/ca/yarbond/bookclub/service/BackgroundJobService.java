@@ -0,0 +1,163 @@
+package ca.yarbond.bookclub.service;
+
+import ca.yarbond.bookclub.event.BackgroundJobEnqueuedEvent;
+import ca.yarbond.bookclub.model.BackgroundJob;
+import ca.yarbond.bookclub.model.JobStatus;
+import ca.yarbond.bookclub.model.JobType;
+import ca.yarbond.bookclub.repository.BackgroundJobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Persistent queue of background jobs: enqueueing, claiming, and recording outcomes with
+ * exponential backoff between attempts. Jobs are run by {@link BackgroundJobRunner}.
+ */
+@Service
+public class BackgroundJobService {
+
+    public static final Set<JobStatus> ACTIVE_STATUSES = EnumSet.of(JobStatus.PENDING, JobStatus.RUNNING);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final BackgroundJobRepository backgroundJobRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.jobs.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.jobs.retry-base-delay:PT10S}")
+    private Duration retryBaseDelay;
+
+    @Value("${app.jobs.retry-max-delay:PT1H}")
+    private Duration retryMaxDelay;
+
+    @Autowired
+    public BackgroundJobService(BackgroundJobRepository backgroundJobRepository,
+                                ApplicationEventPublisher eventPublisher) {
+        this.backgroundJobRepository = backgroundJobRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Stores a job in the current transaction; workers start on it once that commits
+     *
+     * @param type What to do
+     * @param bookId The book it is done for
+     * @param payload Type specific input, or null
+     */
+    @Transactional
+    public BackgroundJob enqueue(JobType type, Long bookId, String payload) {
+        BackgroundJob job = backgroundJobRepository.save(new BackgroundJob(type, bookId, payload, maxAttempts));
+        eventPublisher.publishEvent(new BackgroundJobEnqueuedEvent());
+        return job;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> findDueJobIds(int limit) {
+        return backgroundJobRepository.findDueJobIds(LocalDateTime.now(), PageRequest.of(0, limit));
+    }
+
+    /**
+     * @return true if the caller now owns the job and must record its outcome
+     */
+    @Transactional
+    public boolean claim(Long jobId) {
+        return backgroundJobRepository.claim(jobId, LocalDateTime.now()) > 0;
+    }
+
+    /**
+     * Gives a claimed job back without counting the attempt, e.g. when the worker pool is full
+     */
+    @Transactional
+    public void release(Long jobId) {
+        backgroundJobRepository.findById(jobId).ifPresent(job -> {
+            job.setStatus(JobStatus.PENDING);
+            job.setAttempts(Math.max(0, job.getAttempts() - 1));
+            job.setUpdatedAt(LocalDateTime.now());
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public BackgroundJob getJob(Long jobId) {
+        return backgroundJobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Background job not found with id: " + jobId));
+    }
+
+    @Transactional
+    public void markSucceeded(Long jobId) {
+        backgroundJobRepository.findById(jobId).ifPresent(job -> {
+            job.setStatus(JobStatus.SUCCEEDED);
+            job.setLastError(null);
+            job.setUpdatedAt(LocalDateTime.now());
+        });
+    }
+
+    /**
+     * Records a failed attempt: the job is retried after an exponentially growing delay,
+     * or marked failed once it has used all its attempts
+     */
+    @Transactional
+    public void markFailed(Long jobId, Exception error) {
+        backgroundJobRepository.findById(jobId).ifPresent(job -> {
+            LocalDateTime now = LocalDateTime.now();
+            String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+            job.setLastError(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message);
+            job.setUpdatedAt(now);
+            if (job.getAttempts() >= job.getMaxAttempts()) {
+                job.setStatus(JobStatus.FAILED);
+            } else {
+                job.setStatus(JobStatus.PENDING);
+                job.setNextRunAt(now.plus(retryDelay(job.getAttempts())));
+            }
+        });
+    }
+
+    /**
+     * Pending and running jobs of a book, for the processing indicator on its page
+     */
+    @Transactional(readOnly = true)
+    public List<BackgroundJob> getActiveJobsForBook(Long bookId) {
+        return backgroundJobRepository.findByBookIdAndStatusInOrderByCreatedAt(bookId, ACTIVE_STATUSES);
+    }
+
+    /**
+     * Most recent jobs of a book in any status, newest first
+     */
+    @Transactional(readOnly = true)
+    public List<BackgroundJob> getRecentJobsForBook(Long bookId) {
+        return backgroundJobRepository.findTop20ByBookIdOrderByCreatedAtDesc(bookId);
+    }
+
+    @Transactional(readOnly = true)
+    public boolean hasActiveJob(Long bookId, JobType type) {
+        return backgroundJobRepository.existsByBookIdAndTypeAndStatusIn(bookId, type, ACTIVE_STATUSES);
+    }
+
+    @Transactional
+    public int requeueInterruptedJobs() {
+        return backgroundJobRepository.requeueRunning(LocalDateTime.now());
+    }
+
+    @Transactional
+    public int deleteSucceededBefore(LocalDateTime before) {
+        return backgroundJobRepository.deleteSucceededBefore(before);
+    }
+
+    /**
+     * Base delay doubled per failed attempt, capped at the maximum delay
+     */
+    private Duration retryDelay(int attempts) {
+        Duration delay = retryBaseDelay.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(retryMaxDelay) > 0 ? retryMaxDelay : delay;
+    }
+}
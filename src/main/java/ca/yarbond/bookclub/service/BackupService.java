@@ -12,6 +12,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -114,15 +115,20 @@ public class BackupService {
             return;
         }
 
-        Files.list(directory).forEach(file -> {
-            try {
-                if (Files.isRegularFile(file)) {
-                    addFileToZip(zipOut, file, zipDirName + "/" + file.getFileName());
-                }
-            } catch (IOException e) {
-                logger.error("Failed to backup file: " + file, e);
-            }
-        });
+        // Book files sit in aa/bb/ shard directories; hidden working directories (uploads still
+        // being written, generated cover variants) are skipped
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.filter(Files::isRegularFile)
+                    .filter(file -> !directory.relativize(file).getName(0).toString().startsWith("."))
+                    .forEach(file -> {
+                        try {
+                            String relativeName = directory.relativize(file).toString().replace('\\', '/');
+                            addFileToZip(zipOut, file, zipDirName + "/" + relativeName);
+                        } catch (IOException e) {
+                            logger.error("Failed to backup file: " + file, e);
+                        }
+                    });
+        }
     }
 
     private void addFileToZip(ZipOutputStream zipOut, Path file, String entryName) throws IOException {
@@ -1,5 +1,6 @@
 package ca.yarbond.bookclub.service;
 
+import ca.yarbond.bookclub.event.ClubDataChangedEvent;
 import ca.yarbond.bookclub.model.Book;
 import ca.yarbond.bookclub.model.BookCompletionRecord;
 import ca.yarbond.bookclub.model.Member;
@@ -7,6 +8,7 @@ import ca.yarbond.bookclub.repository.BookCompletionRepository;
 import ca.yarbond.bookclub.repository.BookRepository;
 import ca.yarbond.bookclub.repository.MemberRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,6 +23,7 @@ public class BookCompletionService {
     private final MemberRepository memberRepository;
     private final BookService bookService;
     private final MemberService memberService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public BookCompletionService(
@@ -28,12 +31,14 @@ public class BookCompletionService {
             BookRepository bookRepository,
             MemberRepository memberRepository,
             BookService bookService,
-            MemberService memberService) {
+            MemberService memberService,
+            ApplicationEventPublisher eventPublisher) {
         this.bookCompletionRepository = bookCompletionRepository;
         this.bookRepository = bookRepository;
         this.memberRepository = memberRepository;
         this.bookService = bookService;
         this.memberService = memberService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Transactional
@@ -52,7 +57,9 @@ public class BookCompletionService {
         BookCompletionRecord record = new BookCompletionRecord(book, member);
         record.setCompletionDate(LocalDate.now());
         
-        return bookCompletionRepository.save(record);
+        BookCompletionRecord savedRecord = bookCompletionRepository.save(record);
+        publishCompletionChange();
+        return savedRecord;
     }
     
     @Transactional(readOnly = true)
@@ -88,6 +95,7 @@ public class BookCompletionService {
     public void removeBookCompletionRecord(Long bookId, Long memberId) {
         BookCompletionRecord.BookCompletionId id = new BookCompletionRecord.BookCompletionId(bookId, memberId);
         bookCompletionRepository.deleteById(id);
+        publishCompletionChange();
     }
     
     /**
@@ -112,6 +120,7 @@ public class BookCompletionService {
                 bookCompletionRepository.save(record);
             }
         }
+        publishCompletionChange();
     }
     
     /**
@@ -120,7 +129,7 @@ public class BookCompletionService {
      */
     @Transactional(readOnly = true)
     public int getRequiredReadersCount() {
-        int activeMembers = memberService.getActiveMembers().size();
+        int activeMembers = memberService.getActiveMemberCount();
         return Math.max(1, activeMembers - 1); // All but one member, minimum 1
     }
     
@@ -134,4 +143,8 @@ public class BookCompletionService {
         int requiredReaders = getRequiredReadersCount();
         return readCount >= requiredReaders;
     }
+
+    private void publishCompletionChange() {
+        eventPublisher.publishEvent(new ClubDataChangedEvent(ClubDataChangedEvent.Source.COMPLETION));
+    }
 }
\ No newline at end of file
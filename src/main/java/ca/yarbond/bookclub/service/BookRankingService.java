@@ -0,0 +1,247 @@
+package ca.yarbond.bookclub.service;
+
+import ca.yarbond.bookclub.dto.BookFilter;
+import ca.yarbond.bookclub.dto.BookListItem;
+import ca.yarbond.bookclub.dto.BookReadCount;
+import ca.yarbond.bookclub.dto.RankedBook;
+import ca.yarbond.bookclub.event.ClubDataChangedEvent;
+import ca.yarbond.bookclub.model.BookRatingSummary;
+import ca.yarbond.bookclub.repository.BookCompletionRepository;
+import ca.yarbond.bookclub.repository.BookRatingSummaryRepository;
+import ca.yarbond.bookclub.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the club leaderboards precomputed: books ranked by Bayesian-weighted rating
+ * and books ranked by how many members finished them.
+ * Rankings are rebuilt from the rating summaries and grouped completion counts on the first
+ * read after a book, rating, completion or member change, and hourly as a safety net.
+ * A top-N query walks the presorted list and stops after N matching books.
+ */
+@Service
+public class BookRankingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookRankingService.class);
+
+    // How many ratings at the club-wide mean every book starts with,
+    // so a single enthusiastic rating can't put a book on top
+    private static final double PRIOR_WEIGHT = 3.0;
+
+    private final BookRepository bookRepository;
+    private final BookRatingSummaryRepository ratingSummaryRepository;
+    private final BookCompletionRepository bookCompletionRepository;
+
+    private volatile Rankings rankings = new Rankings(List.of(), List.of());
+    private volatile boolean stale = true;
+
+    @Autowired
+    public BookRankingService(
+            BookRepository bookRepository,
+            BookRatingSummaryRepository ratingSummaryRepository,
+            BookCompletionRepository bookCompletionRepository) {
+        this.bookRepository = bookRepository;
+        this.ratingSummaryRepository = ratingSummaryRepository;
+        this.bookCompletionRepository = bookCompletionRepository;
+    }
+
+    /**
+     * Marks the rankings as outdated once a change to their inputs has been committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClubDataChanged(ClubDataChangedEvent event) {
+        if (event.getSource() != ClubDataChangedEvent.Source.QUEUE) {
+            stale = true;
+        }
+    }
+
+    /**
+     * Rebuilds the rankings hourly in case a change slipped past the events, e.g. a manual database edit
+     */
+    @Scheduled(cron = "0 0 * * * ?")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Scheduled leaderboard rebuild failed", e);
+        }
+    }
+
+    /**
+     * Books with at least one rating, best Bayesian-weighted score first
+     *
+     * @param filter Owner, status, fiction and page count restrictions; null for none
+     * @param limit Maximum number of books
+     */
+    public List<RankedBook> getTopRated(BookFilter filter, int limit) {
+        return top(current().topRated, filter, limit);
+    }
+
+    /**
+     * Books finished by at least one member, most finished first
+     *
+     * @param filter Owner, status, fiction and page count restrictions; null for none
+     * @param limit Maximum number of books
+     */
+    public List<RankedBook> getMostRead(BookFilter filter, int limit) {
+        return top(current().mostRead, filter, limit);
+    }
+
+    /**
+     * Recomputes both rankings from the rating summaries and completion counts
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        // Cleared before reading, so a change committed while rebuilding marks the result stale again
+        stale = false;
+        try {
+            rankings = computeRankings();
+        } catch (RuntimeException e) {
+            stale = true;
+            throw e;
+        }
+    }
+
+    private Rankings current() {
+        if (stale) {
+            synchronized (this) {
+                if (stale) {
+                    rebuild();
+                }
+            }
+        }
+        return rankings;
+    }
+
+    private Rankings computeRankings() {
+        Map<Long, BookRatingSummary> summaries = ratingSummaryRepository.findAll().stream()
+                .filter(summary -> summary.getRatingCount() > 0)
+                .collect(Collectors.toMap(BookRatingSummary::getBookId, Function.identity()));
+        Map<Long, Long> readCounts = bookCompletionRepository.countCompletionsPerBook().stream()
+                .collect(Collectors.toMap(BookReadCount::getBookId, BookReadCount::getReadCount));
+
+        // Club-wide mean of readability and content scores together
+        long totalRatings = 0;
+        long totalScore = 0;
+        for (BookRatingSummary summary : summaries.values()) {
+            totalRatings += summary.getRatingCount();
+            totalScore += summary.getReadabilitySum() + summary.getContentSum();
+        }
+        double clubMean = totalRatings == 0 ? 0 : (double) totalScore / (2 * totalRatings);
+
+        // Only books with ratings or reads are ranked, and only their list columns are loaded
+        Set<Long> rankedIds = new HashSet<>(summaries.keySet());
+        rankedIds.addAll(readCounts.keySet());
+        List<BookListItem> books = rankedIds.isEmpty()
+                ? List.of()
+                : bookRepository.findListItems(BookFilter.builder().ids(rankedIds).build());
+
+        List<RankedBook> topRated = new ArrayList<>();
+        List<RankedBook> mostRead = new ArrayList<>();
+        for (BookListItem book : books) {
+            RankedBook ranked = toRankedBook(book, summaries.get(book.getId()),
+                    readCounts.getOrDefault(book.getId(), 0L), clubMean);
+            if (ranked.getRatingCount() > 0) {
+                topRated.add(ranked);
+            }
+            if (ranked.getReadCount() > 0) {
+                mostRead.add(ranked);
+            }
+        }
+
+        topRated.sort(Comparator.comparingDouble(RankedBook::getScore).reversed()
+                .thenComparing(Comparator.comparingInt(RankedBook::getRatingCount).reversed())
+                .thenComparing(RankedBook::getBookId, Comparator.reverseOrder()));
+        mostRead.sort(Comparator.comparingLong(RankedBook::getReadCount).reversed()
+                .thenComparing(Comparator.comparingDouble(RankedBook::getScore).reversed())
+                .thenComparing(RankedBook::getBookId, Comparator.reverseOrder()));
+
+        logger.info("Leaderboards built: {} rated books, {} read books", topRated.size(), mostRead.size());
+        return new Rankings(List.copyOf(topRated), List.copyOf(mostRead));
+    }
+
+    private RankedBook toRankedBook(BookListItem book, BookRatingSummary summary, long readCount, double clubMean) {
+        int ratingCount = summary != null ? summary.getRatingCount() : 0;
+        double averageReadability = summary != null ? summary.getAverageReadability() : 0;
+        double averageContent = summary != null ? summary.getAverageContent() : 0;
+
+        // Pull the book's mean towards the club mean, less so the more ratings it has
+        double bookMean = (averageReadability + averageContent) / 2;
+        double score = ratingCount == 0 ? 0
+                : (PRIOR_WEIGHT * clubMean + ratingCount * bookMean) / (PRIOR_WEIGHT + ratingCount);
+
+        return new RankedBook(
+                book.getId(),
+                book.getTitle(),
+                book.getAuthor(),
+                book.getCoverImagePath(),
+                book.getStatus(),
+                book.getOwnerId(),
+                book.getOwnerName(),
+                book.isFiction(),
+                book.getPageCount(),
+                ratingCount,
+                averageReadability,
+                averageContent,
+                score,
+                readCount);
+    }
+
+    private List<RankedBook> top(List<RankedBook> ranking, BookFilter filter, int limit) {
+        List<RankedBook> result = new ArrayList<>(Math.min(limit, ranking.size()));
+        for (RankedBook book : ranking) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (matches(book, filter)) {
+                result.add(book);
+            }
+        }
+        return result;
+    }
+
+    private boolean matches(RankedBook book, BookFilter filter) {
+        if (filter == null) {
+            return true;
+        }
+        if (filter.getOwnerId() != null && !filter.getOwnerId().equals(book.getOwnerId())) {
+            return false;
+        }
+        if (filter.getStatus() != null && filter.getStatus() != book.getStatus()) {
+            return false;
+        }
+        if (filter.getFiction() != null && filter.getFiction() != book.isFiction()) {
+            return false;
+        }
+        if (filter.getMinPageCount() != null
+                && (book.getPageCount() == null || book.getPageCount() < filter.getMinPageCount())) {
+            return false;
+        }
+        if (filter.getMaxPageCount() != null
+                && (book.getPageCount() == null || book.getPageCount() > filter.getMaxPageCount())) {
+            return false;
+        }
+        return filter.getIds() == null || filter.getIds().contains(book.getBookId());
+    }
+
+    /**
+     * Both rankings as one immutable snapshot, so readers never see a half-built pair
+     */
+    private record Rankings(List<RankedBook> topRated, List<RankedBook> mostRead) {
+    }
+}
@@ -0,0 +1,241 @@
+package ca.yarbond.bookclub.service;
+
+import ca.yarbond.bookclub.dto.BookComments;
+import ca.yarbond.bookclub.event.SearchableBookChangedEvent;
+import ca.yarbond.bookclub.model.Book;
+import ca.yarbond.bookclub.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over the searchable book fields (title, author, comments and owner name).
+ * Maps every token to the ids of the books containing it, so a search term is answered
+ * without scanning the books table.
+ */
+@Component
+public class BookSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookSearchIndex.class);
+
+    private final BookRepository bookRepository;
+
+    // token -> ids of books containing the token, kept sorted for prefix lookups
+    private final TreeMap<String, Set<Long>> postings = new TreeMap<>();
+    // book id -> tokens indexed for that book, used to remove stale postings on update/delete
+    private final Map<Long, Set<String>> bookTokens = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public BookSearchIndex(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    /**
+     * Builds the index from the database once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<Book> books = bookRepository.findAll();
+        Map<Long, String> comments = commentsById(bookRepository.findAllComments());
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            bookTokens.clear();
+            for (Book book : books) {
+                addBook(book, comments.get(book.getId()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        logger.info("Book search index built: {} books, {} tokens", books.size(), postings.size());
+    }
+
+    /**
+     * Re-reads the changed books once the change has been committed, so the index never
+     * holds a book that was rolled back or misses one that was kept
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onSearchableBookChanged(SearchableBookChangedEvent event) {
+        if (event.getScope() == SearchableBookChangedEvent.Scope.OWNER) {
+            reindexOwner(event.getId());
+            return;
+        }
+        bookRepository.findById(event.getId())
+                .ifPresentOrElse(this::index, () -> remove(event.getId()));
+    }
+
+    /**
+     * Adds or replaces the index entries for a book
+     */
+    public void index(Book book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeBook(book.getId());
+            addBook(book, book.getComments());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-indexes all books of a member, e.g. after the member was renamed
+     */
+    public void reindexOwner(Long ownerId) {
+        List<Book> books = bookRepository.findByOwnerId(ownerId);
+        Map<Long, String> comments = commentsById(bookRepository.findCommentsByOwnerId(ownerId));
+
+        lock.writeLock().lock();
+        try {
+            for (Book book : books) {
+                removeBook(book.getId());
+                addBook(book, comments.get(book.getId()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a book from the index
+     */
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeBook(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the books matching a search term.
+     * Every word of the term must be a prefix of some word in the book's title, author,
+     * comments or owner name.
+     *
+     * @param searchTerm Free text search term
+     * @return Ids of the matching books
+     */
+    public Set<Long> search(String searchTerm) {
+        List<String> queryTokens = tokenize(searchTerm);
+        if (queryTokens.isEmpty()) {
+            return Set.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Set<Long> result = null;
+            for (String queryToken : queryTokens) {
+                Set<Long> matches = prefixMatches(queryToken);
+                if (result == null) {
+                    result = matches;
+                } else {
+                    result.retainAll(matches);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Splits text into lowercase words on anything that is not a letter or digit,
+     * so Cyrillic and other non-Latin text is tokenized the same way as Latin text
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private Set<Long> prefixMatches(String prefix) {
+        Set<Long> matches = new HashSet<>();
+        // Every token starting with the prefix sorts between the prefix and prefix + max char
+        SortedMap<String, Set<Long>> range = postings.subMap(prefix, prefix + Character.MAX_VALUE);
+        for (Set<Long> ids : range.values()) {
+            matches.addAll(ids);
+        }
+        return matches;
+    }
+
+    private Map<Long, String> commentsById(List<BookComments> rows) {
+        Map<Long, String> comments = new HashMap<>();
+        for (BookComments row : rows) {
+            comments.put(row.getBookId(), row.getComments());
+        }
+        return comments;
+    }
+
+    /**
+     * Indexes a book; comments are passed separately as they are lazily loaded on Book
+     */
+    private void addBook(Book book, String comments) {
+        Set<String> tokens = new HashSet<>();
+        tokens.addAll(tokenize(book.getTitle()));
+        tokens.addAll(tokenize(book.getAuthor()));
+        tokens.addAll(tokenize(comments));
+        if (book.getOwner() != null) {
+            tokens.addAll(tokenize(book.getOwner().getName()));
+        }
+
+        for (String token : tokens) {
+            postings.computeIfAbsent(token, t -> new HashSet<>()).add(book.getId());
+        }
+        bookTokens.put(book.getId(), tokens);
+    }
+
+    private void removeBook(Long bookId) {
+        Set<String> tokens = bookTokens.remove(bookId);
+        if (tokens == null) {
+            return;
+        }
+
+        for (String token : tokens) {
+            Set<Long> ids = postings.get(token);
+            if (ids != null) {
+                ids.remove(bookId);
+                if (ids.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+    }
+}
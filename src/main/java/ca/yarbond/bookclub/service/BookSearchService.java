@@ -1,11 +1,17 @@
 package ca.yarbond.bookclub.service;
 
-import ca.yarbond.bookclub.model.Book;
+import ca.yarbond.bookclub.dto.BookCursor;
+import ca.yarbond.bookclub.dto.BookCursorPage;
+import ca.yarbond.bookclub.dto.BookFilter;
+import ca.yarbond.bookclub.dto.BookListItem;
 import ca.yarbond.bookclub.model.BookStatus;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * Service class to encapsulate book search and filtering logic
  */
@@ -21,50 +27,93 @@ public class BookSearchService {
     }
 
     /**
-     * Search for books with flexible filter combinations and pagination
+     * How the search term is matched against books
+     */
+    public enum SearchMode {
+        WORDS,  // Word prefixes in title/author/comments/owner, newest books first
+        FUZZY;  // Substrings and misspellings in title/author, best matches first
+
+        public static SearchMode fromString(String mode) {
+            if (mode == null || mode.trim().isEmpty()) return WORDS;
+
+            try {
+                return valueOf(mode.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return WORDS;
+            }
+        }
+    }
+
+    /**
+     * Search for books with flexible filter combinations, search mode and pagination.
+     * All filter combinations go through one query builder that adds only the filters present.
      *
-     * @param search Search term for title/author/comments (optional)
+     * @param search Search term (optional)
      * @param status Book status filter (optional)
      * @param ownerId Owner ID filter (optional)
+     * @param fiction Fiction/non-fiction filter (optional)
+     * @param format Only books with a file in this format, e.g. epub (optional)
+     * @param mode How the search term is matched
      * @param page Page number (0-based)
      * @return Page of books matching the search criteria
      */
-    public Page<Book> searchBooks(String search, String status, Long ownerId, int page) {
-        // Convert status string to enum if present
-        BookStatus bookStatus = BookStatus.fromString(status);
-
-        // Check for empty strings and null values
+    public Page<BookListItem> searchBooks(String search, String status, Long ownerId, Boolean fiction,
+                                          String format, SearchMode mode, int page) {
+        BookFilter filter = buildFilter(status, ownerId, fiction, format);
         boolean hasSearch = search != null && !search.trim().isEmpty();
-        boolean hasStatus = bookStatus != null;
-        boolean hasOwner = ownerId != null;
-        
-        // Handle different filter combinations using the most optimized repository method
-        if (hasSearch) {
-            if (hasStatus && hasOwner) {
-                // Use optimized method for combined search + status + owner filter
-                return bookService.searchBooksByStatusAndOwnerId(search, bookStatus, ownerId, page, DEFAULT_PAGE_SIZE);
-            } else if (hasStatus) {
-                // Search with status filter
-                return bookService.searchBooksByStatus(search, bookStatus, page, DEFAULT_PAGE_SIZE);
-            } else if (hasOwner) {
-                // Search with owner filter
-                return bookService.searchBooksByOwnerId(search, ownerId, page, DEFAULT_PAGE_SIZE);
-            } else {
-                // Just search
-                return bookService.searchBooks(search, page, DEFAULT_PAGE_SIZE);
-            }
-        } else if (hasStatus && hasOwner) {
-            // Filter by both status and owner
-            return bookService.getBooksByOwnerIdAndStatus(ownerId, bookStatus, page, DEFAULT_PAGE_SIZE);
-        } else if (hasStatus) {
-            // Filter by status only
-            return bookService.getBooksByStatus(bookStatus, page, DEFAULT_PAGE_SIZE);
-        } else if (hasOwner) {
-            // Filter by owner only
-            return bookService.getBooksByOwnerId(ownerId, page, DEFAULT_PAGE_SIZE);
+
+        // Fuzzy search ranks by relevance and applies the filters to the ranked candidates
+        if (hasSearch && mode == SearchMode.FUZZY) {
+            return bookService.fuzzySearchBooks(search, filter, page, DEFAULT_PAGE_SIZE);
+        }
+        return bookService.findBooks(search, filter, page, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Search for books with keyset (cursor) pagination instead of page numbers.
+     * Only supports the word search mode, as fuzzy results are ordered by relevance.
+     *
+     * @param search Search term for title/author/comments (optional)
+     * @param status Book status filter (optional)
+     * @param ownerId Owner ID filter (optional)
+     * @param fiction Fiction/non-fiction filter (optional)
+     * @param format Only books with a file in this format, e.g. epub (optional)
+     * @param cursor Opaque cursor token from a previous page, or null for the first page
+     * @return The page of books with the cursor tokens of the next and previous pages
+     */
+    public BookCursorPage searchBooksByCursor(String search, String status, Long ownerId, Boolean fiction,
+                                              String format, String cursor) {
+        BookFilter filter = buildFilter(status, ownerId, fiction, format);
+        BookCursor bookCursor = BookCursor.decode(cursor);
+
+        Slice<BookListItem> slice = bookService.getBookSlice(search, filter, bookCursor, DEFAULT_PAGE_SIZE);
+        List<BookListItem> books = slice.getContent();
+        if (books.isEmpty()) {
+            return new BookCursorPage(slice, null, null);
+        }
+
+        BookListItem first = books.get(0);
+        BookListItem last = books.get(books.size() - 1);
+        String nextCursor;
+        String previousCursor;
+        if (bookCursor != null && bookCursor.isBackward()) {
+            // We came back from the following page, so it exists
+            nextCursor = BookCursor.after(last).encode();
+            previousCursor = slice.hasNext() ? BookCursor.before(first).encode() : null;
         } else {
-            // No filters, get all books
-            return bookService.getAllBooks(page, DEFAULT_PAGE_SIZE);
+            nextCursor = slice.hasNext() ? BookCursor.after(last).encode() : null;
+            previousCursor = bookCursor != null ? BookCursor.before(first).encode() : null;
         }
+
+        return new BookCursorPage(slice, nextCursor, previousCursor);
+    }
+
+    private BookFilter buildFilter(String status, Long ownerId, Boolean fiction, String format) {
+        return BookFilter.builder()
+                .status(BookStatus.fromString(status))
+                .ownerId(ownerId)
+                .fiction(fiction)
+                .fileFormat(format == null || format.isBlank() ? null : format.trim())
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -1,15 +1,31 @@
 package ca.yarbond.bookclub.service;
 
+import ca.yarbond.bookclub.dto.BookCursor;
+import ca.yarbond.bookclub.dto.BookFilter;
+import ca.yarbond.bookclub.dto.BookListItem;
+import ca.yarbond.bookclub.dto.MemberBookStats;
+import ca.yarbond.bookclub.dto.OwnerStatusCount;
+import ca.yarbond.bookclub.event.ClubDataChangedEvent;
+import ca.yarbond.bookclub.event.SearchableBookChangedEvent;
 import ca.yarbond.bookclub.model.Book;
+import ca.yarbond.bookclub.model.BookFile;
 import ca.yarbond.bookclub.model.BookStatus;
+import ca.yarbond.bookclub.model.JobType;
 import ca.yarbond.bookclub.model.Member;
 import ca.yarbond.bookclub.model.MemberQueueItem;
+import ca.yarbond.bookclub.repository.BookFileRepository;
 import ca.yarbond.bookclub.repository.BookRepository;
 import ca.yarbond.bookclub.repository.MemberRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.util.Pair;
 import org.springframework.stereotype.Service;
@@ -17,59 +33,60 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class BookService {
 
+    // Fuzzy search only pages through the best matches left after filtering; anything further down is noise
+    private static final int MAX_FUZZY_RESULTS = 100;
+
     private final BookRepository bookRepository;
+    private final BookFileRepository bookFileRepository;
     private final FileStorageService fileStorageService;
     private final MemberQueueService memberQueueService;
     private final MemberRepository memberRepository;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookTrigramIndex bookTrigramIndex;
+    private final BackgroundJobService backgroundJobService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public BookService(
             BookRepository bookRepository,
+            BookFileRepository bookFileRepository,
             FileStorageService fileStorageService,
             MemberQueueService memberQueueService,
-            MemberRepository memberRepository) {
+            MemberRepository memberRepository,
+            BookSearchIndex bookSearchIndex,
+            BookTrigramIndex bookTrigramIndex,
+            BackgroundJobService backgroundJobService,
+            ApplicationEventPublisher eventPublisher) {
         this.bookRepository = bookRepository;
+        this.bookFileRepository = bookFileRepository;
         this.fileStorageService = fileStorageService;
         this.memberQueueService = memberQueueService;
         this.memberRepository = memberRepository;
+        this.bookSearchIndex = bookSearchIndex;
+        this.bookTrigramIndex = bookTrigramIndex;
+        this.backgroundJobService = backgroundJobService;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<Book> getAllBooks() {
         return bookRepository.findAll();
     }
-    
-    /**
-     * Get all books with pagination
-     */
-    public Page<Book> getAllBooks(int page, int size) {
-        // Default sort by ID DESC for non-completed books
-        return bookRepository.findAll(PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id")));
-    }
 
     public List<Book> getBooksByStatus(BookStatus status) {
         return bookRepository.findByStatus(status);
     }
-    
-    /**
-     * Get books by status with pagination
-     * For COMPLETED books, sorts by completionDate DESC
-     * For other statuses, sorts by id DESC
-     */
-    public Page<Book> getBooksByStatus(BookStatus status, int page, int size) {
-        Pageable pageable;
-        if (status == BookStatus.COMPLETED) {
-            pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "completionDate"));
-        } else {
-            pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id"));
-        }
-        return bookRepository.findByStatus(status, pageable);
-    }
 
     public List<Book> getBooksByOwner(Member owner) {
         return bookRepository.findByOwner(owner);
@@ -78,13 +95,6 @@ public class BookService {
     public List<Book> getBooksByOwnerId(Long ownerId) {
         return bookRepository.findByOwnerId(ownerId);
     }
-    
-    /**
-     * Get books by owner ID with pagination
-     */
-    public Page<Book> getBooksByOwnerId(Long ownerId, int page, int size) {
-        return bookRepository.findByOwnerId(ownerId, PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id")));
-    }
 
     public List<Book> getBooksByOwnerAndStatus(Member owner, BookStatus status) {
         return bookRepository.findByOwnerAndStatus(owner, status);
@@ -93,80 +103,134 @@ public class BookService {
     public List<Book> getBooksByOwnerIdAndStatus(Long ownerId, BookStatus status) {
         return bookRepository.findByOwnerIdAndStatus(ownerId, status);
     }
-    
+
+    public List<Book> getRecentlyCompletedBooks() {
+        return bookRepository.findTop5RecentlyCompletedBooks();
+    }
+
     /**
-     * Get books by owner ID and status with pagination
+     * The five most recently completed books as list rows
      */
-    public Page<Book> getBooksByOwnerIdAndStatus(Long ownerId, BookStatus status, int page, int size) {
-        Pageable pageable;
-        if (status == BookStatus.COMPLETED) {
-            pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "completionDate"));
-        } else {
-            pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id"));
-        }
-        return bookRepository.findByOwnerIdAndStatus(ownerId, status, pageable);
+    public List<BookListItem> getRecentlyCompletedBookList() {
+        return bookRepository.findRecentlyCompletedListItems(PageRequest.of(0, 5));
     }
 
-    public List<Book> getRecentlyCompletedBooks() {
-        return bookRepository.findTop5RecentlyCompletedBooks();
+    public List<BookListItem> getBookListByOwnerIdAndStatus(Long ownerId, BookStatus status) {
+        return bookRepository.findListItemsByOwnerIdAndStatus(ownerId, status);
+    }
+
+    /**
+     * Gets the download links of the given books, for list pages that render rows without files
+     * Returns a map of bookId -> (format -> download file name); books without files are left out
+     */
+    public Map<Long, Map<String, String>> getFilePathsForBooks(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Map<String, String>> filePaths = new HashMap<>();
+        for (BookFile file : bookFileRepository.findByBookIds(bookIds)) {
+            filePaths.computeIfAbsent(file.getBook().getId(), id -> new LinkedHashMap<>())
+                    .put(file.getFormat(), file.getDownloadName());
+        }
+        return filePaths;
     }
 
     public List<Book> getAllCompletedBooks() {
         return bookRepository.findByStatus(BookStatus.COMPLETED);
     }
-    
+
     /**
-     * Get all completed books with pagination, sorted by completion date
+     * Gets book counts per status for every member who owns books
+     * Returns a map of memberId -> stats; members without books are left out
      */
-    public Page<Book> getAllCompletedBooks(int page, int size) {
-        return bookRepository.findByStatus(BookStatus.COMPLETED, 
-                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "completionDate")));
+    public Map<Long, MemberBookStats> getBookStatsByOwner() {
+        Map<Long, MemberBookStats> stats = new HashMap<>();
+        for (OwnerStatusCount row : bookRepository.countByOwnerAndStatus()) {
+            stats.computeIfAbsent(row.getOwnerId(), MemberBookStats::new)
+                    .addCount(row.getStatus(), row.getCount());
+        }
+        return stats;
     }
 
     public List<Book> searchBooks(String searchTerm) {
-        return bookRepository.searchBooks(searchTerm);
-    }
-    
-    /**
-     * Search books with pagination
-     */
-    public Page<Book> searchBooks(String searchTerm, int page, int size) {
-        return bookRepository.searchBooks(searchTerm, 
-                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id")));
+        Set<Long> matchingIds = bookSearchIndex.search(searchTerm);
+        if (matchingIds.isEmpty()) {
+            return List.of();
+        }
+        return bookRepository.findByIdIn(matchingIds);
     }
-    
+
     /**
-     * Search books with status filter and pagination
+     * Get books matching an optional search term and filters, with pagination.
+     * For COMPLETED books, sorts by completionDate DESC
+     * For everything else, sorts by id DESC
      */
-    public Page<Book> searchBooksByStatus(String searchTerm, BookStatus status, int page, int size) {
+    public Page<BookListItem> findBooks(String searchTerm, BookFilter filter, int page, int size) {
         Pageable pageable;
-        if (status == BookStatus.COMPLETED) {
+        if (filter.getStatus() == BookStatus.COMPLETED) {
             pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "completionDate"));
         } else {
             pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id"));
         }
-        return bookRepository.searchBooksByStatus(searchTerm, status, pageable);
+
+        if (!restrictToSearchMatches(searchTerm, filter)) {
+            return Page.empty(pageable);
+        }
+        return bookRepository.findListPage(filter, pageable);
     }
-    
+
     /**
-     * Search books with owner filter and pagination
+     * Keyset-paginated books with optional search term and filters.
+     * Runs no OFFSET and no COUNT query, so deep pages cost the same as the first one
      */
-    public Page<Book> searchBooksByOwnerId(String searchTerm, Long ownerId, int page, int size) {
-        return bookRepository.searchBooksByOwnerId(searchTerm, ownerId, 
-                PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id")));
+    public Slice<BookListItem> getBookSlice(String searchTerm, BookFilter filter, BookCursor cursor, int size) {
+        if (!restrictToSearchMatches(searchTerm, filter)) {
+            return new SliceImpl<>(List.of(), PageRequest.of(0, size), false);
+        }
+        return bookRepository.findSliceByKeyset(filter, cursor, size);
     }
-    
+
     /**
-     * Search books with both status and owner filters and pagination
+     * Fuzzy search on title and author with optional filters.
+     * Results keep the relevance order of the trigram index: substring matches first,
+     * then the most similar titles/authors
      */
-    public Page<Book> searchBooksByStatusAndOwnerId(String searchTerm, BookStatus status, Long ownerId, int page, int size) {
-        Pageable pageable;
-        if (status == BookStatus.COMPLETED) {
-            pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "completionDate"));
-        } else {
-            pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id"));
+    public Page<BookListItem> fuzzySearchBooks(String searchTerm, BookFilter filter, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        List<Long> rankedIds = bookTrigramIndex.search(searchTerm);
+        if (rankedIds.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < rankedIds.size(); i++) {
+            rank.put(rankedIds.get(i), i);
+        }
+
+        // Filter every match before truncating, so books ranked below the cut-off still count
+        filter.setIds(rankedIds);
+        List<BookListItem> matches = bookRepository.findListItems(filter).stream()
+                .sorted(Comparator.comparing(book -> rank.get(book.getId())))
+                .limit(MAX_FUZZY_RESULTS)
+                .toList();
+
+        int fromIndex = (int) Math.min(pageable.getOffset(), matches.size());
+        int toIndex = Math.min(fromIndex + size, matches.size());
+        return new PageImpl<>(matches.subList(fromIndex, toIndex), pageable, matches.size());
+    }
+
+    /**
+     * Narrows the filter to the books matched by the search index, if there is a search term
+     *
+     * @return false if the search term matches no books at all
+     */
+    private boolean restrictToSearchMatches(String searchTerm, BookFilter filter) {
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            return true;
         }
-        return bookRepository.searchBooksByStatusAndOwnerId(searchTerm, status, ownerId, pageable);
+        Set<Long> matchingIds = bookSearchIndex.search(searchTerm);
+        filter.setIds(matchingIds);
+        return !matchingIds.isEmpty();
     }
 
     public Book getCurrentBook() {
@@ -179,6 +243,32 @@ public class BookService {
         return nextBooks.isEmpty() ? null : nextBooks.get(0);
     }
 
+    /**
+     * Current book with its lazy comments and file paths already loaded,
+     * for views that keep the book after the session is closed
+     */
+    @Transactional(readOnly = true)
+    public Book getCurrentBookWithDetails() {
+        return loadDetails(getCurrentBook());
+    }
+
+    /**
+     * Next book with its lazy comments and file paths already loaded
+     */
+    @Transactional(readOnly = true)
+    public Book getNextBookWithDetails() {
+        return loadDetails(getNextBook());
+    }
+
+    private Book loadDetails(Book book) {
+        if (book != null) {
+            // Reading the lazy comments and iterating the files collection loads both
+            book.getComments();
+            book.getFiles().size();
+        }
+        return book;
+    }
+
     /**
      * Gets the list of wishlist books for the next member in queue
      */
@@ -197,6 +287,14 @@ public class BookService {
                 .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
     }
 
+    /**
+     * Book with its lazy comments and file paths loaded, for the detail and edit pages
+     */
+    @Transactional(readOnly = true)
+    public Book getBookWithDetails(Long id) {
+        return loadDetails(getBookById(id));
+    }
+
     @Transactional
     public Book createBook(Book book) {
         // Ensure the owner exists
@@ -214,7 +312,10 @@ public class BookService {
             book.setStatus(BookStatus.WISHLIST);
         }
 
-        return bookRepository.save(book);
+        Book savedBook = bookRepository.save(book);
+        publishSearchableChange(savedBook.getId());
+        publishBookChange();
+        return savedBook;
     }
 
     @Transactional
@@ -241,12 +342,25 @@ public class BookService {
 
         book.setComments(bookDetails.getComments());
 
-        return bookRepository.save(book);
+        Book savedBook = bookRepository.save(book);
+        publishSearchableChange(savedBook.getId());
+        // An edit may have moved the current book out of CURRENT
+        promoteNextBookIfNeeded();
+        publishBookChange();
+        return savedBook;
     }
 
     @Transactional
     public void deleteBook(Long id) {
-        bookRepository.deleteById(id);
+        Book book = getBookById(id);
+        // The book's file rows go with it; drop their references so unused content is deleted too
+        for (BookFile file : book.getFiles()) {
+            fileStorageService.releaseBookFile(file.getStoredName());
+        }
+        bookRepository.delete(book);
+        publishSearchableChange(id);
+        promoteNextBookIfNeeded();
+        publishBookChange();
     }
 
     /**
@@ -277,6 +391,10 @@ public class BookService {
         if(owner.isActive()){
             memberQueueService.rotateQueue();
         }
+        promoteNextBookIfNeeded();
+        publishBookChange();
+        // The owner's pick statistics changed too
+        eventPublisher.publishEvent(new ClubDataChangedEvent(ClubDataChangedEvent.Source.MEMBER));
     }
 
     /**
@@ -297,6 +415,7 @@ public class BookService {
         Book newBook = getBookById(newBookId);
         newBook.setStatus(BookStatus.CURRENT);
         bookRepository.save(newBook);
+        publishBookChange();
     }
 
     /**
@@ -315,6 +434,8 @@ public class BookService {
         // Move current book back to wishlist
         currentBook.setStatus(BookStatus.WISHLIST);
         bookRepository.save(currentBook);
+        promoteNextBookIfNeeded();
+        publishBookChange();
     }
 
     /**
@@ -332,7 +453,11 @@ public class BookService {
         // Then set the selected book to NEXT
         Book newNextBook = getBookById(bookId);
         newNextBook.setStatus(BookStatus.NEXT);
-        return bookRepository.save(newNextBook);
+        Book savedBook = bookRepository.save(newNextBook);
+        // With nothing being read, the selected book starts right away
+        promoteNextBookIfNeeded();
+        publishBookChange();
+        return savedBook;
     }
 
     private String getFileFormat(String filename) {
@@ -347,7 +472,9 @@ public class BookService {
     }
 
     /**
-     * Promotes the next book to current if current is empty
+     * Promotes the next book to current if current is empty.
+     * Called by every write that can leave the club without a current book,
+     * so reading pages never has to promote.
      *
      * @return true if promotion occurred, false otherwise
      */
@@ -365,17 +492,32 @@ public class BookService {
                 memberQueueService.rotateToMember(nextBook.getOwner());
             }
 
+            publishBookChange();
             return true;
         }
 
         return false;
     }
 
+    /**
+     * Catches up on a promotion that was still pending when the application stopped
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void promoteNextBookOnStartup() {
+        promoteNextBookIfNeeded();
+    }
+
+    /**
+     * Finds the first member in the queue after the current one who has wishlist books,
+     * using the grouped book counts, and loads that member's wishlist as book cards
+     */
     @Transactional
-    public Pair<MemberQueueItem, List<Book>> getNextMemberWithWishlistBooks(Book currentBook) {
+    public Pair<MemberQueueItem, List<BookListItem>> getNextMemberWithWishlistBooks(Book currentBook) {
         boolean skipCurrentMember = currentBook != null && currentBook.getOwner() != null && currentBook.getOwner().isActive();
 
         List<MemberQueueItem> queue = memberQueueService.getQueue();
+        Map<Long, MemberBookStats> bookStats = getBookStatsByOwner();
 
         Iterator<MemberQueueItem> iterator = queue.iterator();
 
@@ -383,9 +525,10 @@ public class BookService {
 
         while(iterator.hasNext()){
             MemberQueueItem memberQueueItem = iterator.next();
-            List<Book> memberWishlistBooks = getBooksByOwnerAndStatus(memberQueueItem.getMember(), BookStatus.WISHLIST);
-            if (!memberWishlistBooks.isEmpty()){
-                return Pair.of(memberQueueItem, memberWishlistBooks);
+            MemberBookStats stats = bookStats.get(memberQueueItem.getMember().getId());
+            if (stats != null && stats.getWishlistCount() > 0){
+                return Pair.of(memberQueueItem, bookRepository.findCardItemsByOwnerIdAndStatus(
+                        memberQueueItem.getMember().getId(), BookStatus.WISHLIST));
             }
         }
 
@@ -414,6 +557,8 @@ public class BookService {
         // Move current book back to wishlist without queue manipulation
         currentBook.setStatus(BookStatus.WISHLIST);
         bookRepository.save(currentBook);
+        promoteNextBookIfNeeded();
+        publishBookChange();
     }
 
     @Transactional
@@ -427,24 +572,71 @@ public class BookService {
         }
 
         // Check if a file with the same format already exists
-        if (book.getFilePaths().containsKey(fileFormat)) {
+        if (book.getFile(fileFormat) != null) {
             throw new RuntimeException("A " + fileFormat.toUpperCase() + " file already exists for this book. " +
                     "Please remove the existing file first.");
         }
 
-        // Store the file with the book information for better filename
-        String filename = fileStorageService.storeBookFile(file, book);
-        book.addFilePath(fileFormat, filename);
+        // Store the content, or reuse an identical upload, named after the book for downloads
+        BookFile bookFile = fileStorageService.storeBookFile(file, book);
+        book.addFile(bookFile);
 
-        // If it's an EPUB file, try to extract the cover
+        Book savedBook = bookRepository.save(book);
+
+        // If it's an EPUB file, extract the cover once the upload has returned
         if ("epub".equalsIgnoreCase(fileFormat)) {
-            String coverPath = fileStorageService.extractCoverFromEpub(file);
-            if (coverPath != null) {
-                book.setCoverImagePath(coverPath);
-            }
+            backgroundJobService.enqueue(JobType.EXTRACT_EPUB_COVER, savedBook.getId(), null);
         }
 
-        return bookRepository.save(book);
+        publishBookChange();
+        return savedBook;
+    }
+
+    /**
+     * Sets a book's cover to an image already in the covers storage location, and has its
+     * thumbnails made before list pages ask for them
+     *
+     * @param bookId The book id
+     * @param coverImagePath The cover image file name
+     */
+    @Transactional
+    public Book setCoverImage(Long bookId, String coverImagePath) {
+        Book book = getBookById(bookId);
+        book.setCoverImagePath(coverImagePath);
+        Book savedBook = bookRepository.save(book);
+        backgroundJobService.enqueue(JobType.GENERATE_THUMBNAILS, bookId, coverImagePath);
+        publishBookChange();
+        return savedBook;
+    }
+
+    /**
+     * Fills in details a book is missing; values the members entered are never overwritten
+     *
+     * @param bookId The book id
+     * @param pageCount Page count to use if the book has none
+     * @param description Description to use if the book has no comments
+     */
+    @Transactional
+    public Book applyMissingMetadata(Long bookId, Integer pageCount, String description) {
+        Book book = getBookById(bookId);
+        boolean changed = false;
+        if (book.getPageCount() == null && pageCount != null && pageCount > 0) {
+            book.setPageCount(pageCount);
+            changed = true;
+        }
+        if ((book.getComments() == null || book.getComments().isBlank())
+                && description != null && !description.isBlank()) {
+            book.setComments(description);
+            changed = true;
+        }
+        if (!changed) {
+            return book;
+        }
+
+        Book savedBook = bookRepository.save(book);
+        publishSearchableChange(savedBook.getId());
+        publishBookChange();
+        return savedBook;
     }
 
     /**
@@ -462,19 +654,33 @@ public class BookService {
         String formatLower = format.toLowerCase();
 
         // Check if the book has a file with the specified format
-        if (!book.getFilePaths().containsKey(formatLower)) {
+        BookFile bookFile = book.getFile(formatLower);
+        if (bookFile == null) {
             throw new RuntimeException("No " + formatLower.toUpperCase() + " file found for this book");
         }
 
-        // Get the filename before removing it from book
-        String filename = book.getFilePaths().get(formatLower);
+        // Remove the file from the book, which deletes its row
+        book.removeFile(formatLower);
 
-        // Remove the file path from the book
-        book.removeFilePath(formatLower);
+        // Drop the book's reference; the content is deleted once no book uses it
+        fileStorageService.releaseBookFile(bookFile.getStoredName());
 
-        // Delete the file from storage
-        fileStorageService.deleteBookFile(filename);
+        Book savedBook = bookRepository.save(book);
+        publishBookChange();
+        return savedBook;
+    }
 
-        return bookRepository.save(book);
+    /**
+     * Lets cached views of the books refresh once the current transaction commits
+     */
+    private void publishBookChange() {
+        eventPublisher.publishEvent(new ClubDataChangedEvent(ClubDataChangedEvent.Source.BOOK));
+    }
+
+    /**
+     * Lets the search indexes pick up a book's title, author or comments once the current transaction commits
+     */
+    private void publishSearchableChange(Long bookId) {
+        eventPublisher.publishEvent(new SearchableBookChangedEvent(SearchableBookChangedEvent.Scope.BOOK, bookId));
     }
 }
\ No newline at end of file
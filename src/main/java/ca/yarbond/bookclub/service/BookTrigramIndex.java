@@ -0,0 +1,310 @@
+package ca.yarbond.bookclub.service;
+
+import ca.yarbond.bookclub.event.SearchableBookChangedEvent;
+import ca.yarbond.bookclub.model.Book;
+import ca.yarbond.bookclub.repository.BookRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over book titles and authors.
+ * Supports substring matching inside words and similarity-ranked fuzzy matching,
+ * so partial words and misspelled names still find their books.
+ */
+@Component
+public class BookTrigramIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookTrigramIndex.class);
+
+    // Minimum similarity (shared trigrams / all trigrams) for a fuzzy match
+    private static final double SIMILARITY_THRESHOLD = 0.3;
+
+    private final BookRepository bookRepository;
+
+    // trigram -> ids of books whose title or author contains the trigram
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    // book id -> normalized title/author and their trigrams
+    private final Map<Long, IndexedBook> books = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public BookTrigramIndex(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    /**
+     * Builds the index from the database once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<Book> allBooks = bookRepository.findAll();
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            books.clear();
+            for (Book book : allBooks) {
+                addBook(book);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        logger.info("Book trigram index built: {} books, {} trigrams", allBooks.size(), postings.size());
+    }
+
+    /**
+     * Re-reads a changed book once the change has been committed. Owner names aren't
+     * indexed here, so renamed members need nothing.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onSearchableBookChanged(SearchableBookChangedEvent event) {
+        if (event.getScope() != SearchableBookChangedEvent.Scope.BOOK) {
+            return;
+        }
+        bookRepository.findById(event.getId())
+                .ifPresentOrElse(this::index, () -> remove(event.getId()));
+    }
+
+    /**
+     * Adds or replaces the index entries for a book
+     */
+    public void index(Book book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeBook(book.getId());
+            addBook(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a book from the index
+     */
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeBook(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds books whose title or author contains the search term as a substring
+     * or is similar enough to it, best matches first.
+     * Substring matches always rank above fuzzy matches. Query words shorter than a trigram
+     * only match at the start of a word.
+     *
+     * @param searchTerm Free text search term
+     * @return Ids of all matching books ordered by relevance
+     */
+    public List<Long> search(String searchTerm) {
+        String query = normalize(searchTerm);
+        if (query.isEmpty()) {
+            return List.of();
+        }
+
+        Set<String> queryTrigrams = trigrams(query);
+        Map<Long, Double> scores = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            for (Long bookId : substringCandidates(query)) {
+                IndexedBook book = books.get(bookId);
+                if (book.title.contains(query) || book.author.contains(query)) {
+                    // Offset substring hits so they sort above every fuzzy hit
+                    scores.put(bookId, 1.0 + book.similarity(queryTrigrams));
+                }
+            }
+
+            for (Map.Entry<Long, Integer> entry : sharedTrigramCounts(queryTrigrams).entrySet()) {
+                // Jaccard similarity can only reach the threshold with this many shared trigrams
+                if (scores.containsKey(entry.getKey())
+                        || entry.getValue() < SIMILARITY_THRESHOLD * queryTrigrams.size()) {
+                    continue;
+                }
+                double similarity = books.get(entry.getKey()).similarity(queryTrigrams);
+                if (similarity >= SIMILARITY_THRESHOLD) {
+                    scores.put(entry.getKey(), similarity);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * Ids of books that may contain the query as a substring.
+     * Uses the trigrams inside each query word; words too short to have any use the
+     * padded trigram of a word starting with them, so short queries never scan every book.
+     */
+    private Set<Long> substringCandidates(String query) {
+        Set<Long> candidates = null;
+        for (String word : query.split(" ")) {
+            for (String trigram : candidateTrigrams(word)) {
+                Set<Long> ids = postings.getOrDefault(trigram, Set.of());
+                if (candidates == null) {
+                    candidates = new HashSet<>(ids);
+                } else {
+                    candidates.retainAll(ids);
+                }
+                if (candidates.isEmpty()) {
+                    return candidates;
+                }
+            }
+        }
+        return candidates != null ? candidates : Set.of();
+    }
+
+    private List<String> candidateTrigrams(String word) {
+        if (word.length() < 3) {
+            // Same padding as trigrams(): "  a" for a one-letter word start, " ab" for two letters
+            return List.of((word.length() == 1 ? "  " : " ") + word);
+        }
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i + 3 <= word.length(); i++) {
+            result.add(word.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    private Map<Long, Integer> sharedTrigramCounts(Set<String> queryTrigrams) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            for (Long bookId : postings.getOrDefault(trigram, Set.of())) {
+                counts.merge(bookId, 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    private void addBook(Book book) {
+        IndexedBook indexed = new IndexedBook(normalize(book.getTitle()), normalize(book.getAuthor()));
+        for (String trigram : indexed.allTrigrams) {
+            postings.computeIfAbsent(trigram, t -> new HashSet<>()).add(book.getId());
+        }
+        books.put(book.getId(), indexed);
+    }
+
+    private void removeBook(Long bookId) {
+        IndexedBook indexed = books.remove(bookId);
+        if (indexed == null) {
+            return;
+        }
+
+        for (String trigram : indexed.allTrigrams) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids != null) {
+                ids.remove(bookId);
+                if (ids.isEmpty()) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lowercases the text, folds "ё" into "е" and reduces everything that is not
+     * a letter or digit to single spaces
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.toLowerCase(Locale.ROOT)
+                .replace('ё', 'е')
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .trim();
+    }
+
+    /**
+     * Trigrams of every word padded with two leading spaces and one trailing space,
+     * so word starts weigh more than word endings
+     */
+    static Set<String> trigrams(String normalizedText) {
+        Set<String> result = new HashSet<>();
+        if (normalizedText.isEmpty()) {
+            return result;
+        }
+
+        for (String word : normalizedText.split(" ")) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                result.add(padded.substring(i, i + 3));
+            }
+        }
+        return result;
+    }
+
+    private static double similarity(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        int shared = 0;
+        for (String trigram : a) {
+            if (b.contains(trigram)) {
+                shared++;
+            }
+        }
+        return (double) shared / (a.size() + b.size() - shared);
+    }
+
+    private static class IndexedBook {
+        private final String title;
+        private final String author;
+        private final Set<String> titleTrigrams;
+        private final Set<String> authorTrigrams;
+        private final Set<String> allTrigrams;
+
+        private IndexedBook(String title, String author) {
+            this.title = title;
+            this.author = author;
+            this.titleTrigrams = trigrams(title);
+            this.authorTrigrams = trigrams(author);
+            this.allTrigrams = new HashSet<>(titleTrigrams);
+            this.allTrigrams.addAll(authorTrigrams);
+        }
+
+        /**
+         * Best similarity of the query against the title, the author or both together
+         */
+        private double similarity(Set<String> queryTrigrams) {
+            return Math.max(
+                    Math.max(BookTrigramIndex.similarity(queryTrigrams, titleTrigrams),
+                            BookTrigramIndex.similarity(queryTrigrams, authorTrigrams)),
+                    BookTrigramIndex.similarity(queryTrigrams, allTrigrams));
+        }
+    }
+}
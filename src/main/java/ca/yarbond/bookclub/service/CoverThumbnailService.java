@@ -0,0 +1,247 @@
+package ca.yarbond.bookclub.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Fixed-width JPEG variants of cover images for list cards and thumbnails, so pages don't
+ * download full-size covers. Variants are created on first request or right after a cover is
+ * set, kept under .variants/{width}/ in the covers storage location, and evicted least
+ * recently used first once they take more than the configured number of bytes.
+ */
+@Service
+public class CoverThumbnailService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CoverThumbnailService.class);
+
+    public static final List<Integer> WIDTHS = List.of(96, 192, 400);
+
+    private static final String VARIANTS_DIRECTORY = ".variants";
+
+    private final Path coversStorageLocation;
+    private final Path variantsLocation;
+    private final long maxBytes;
+
+    // Variant files and their sizes, least recently used first
+    private final LinkedHashMap<Path, Long> variants = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    // One generation per variant at a time; concurrent requests for it wait and reuse the result
+    private final Map<Path, Object> generationLocks = new ConcurrentHashMap<>();
+
+    public CoverThumbnailService(
+            @Value("${app.storage.covers-location}") String coversStorageLocation,
+            @Value("${app.storage.cover-variants-max-bytes:104857600}") long maxBytes) {
+        this.coversStorageLocation = Paths.get(coversStorageLocation).toAbsolutePath().normalize();
+        this.variantsLocation = this.coversStorageLocation.resolve(VARIANTS_DIRECTORY);
+        this.maxBytes = maxBytes;
+
+        try {
+            Files.createDirectories(variantsLocation);
+            loadExistingVariants();
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not initialize the cover variants directory", ex);
+        }
+    }
+
+    /**
+     * The variant width to serve for a requested width: the smallest that is at least as wide,
+     * or the largest, so only a few variants per cover exist
+     */
+    public static int variantWidth(int requestedWidth) {
+        for (int width : WIDTHS) {
+            if (width >= requestedWidth) {
+                return width;
+            }
+        }
+        return WIDTHS.get(WIDTHS.size() - 1);
+    }
+
+    /**
+     * Gets the variant of a cover, creating it if needed. Covers narrower than the width
+     * are re-encoded at their own size rather than enlarged.
+     *
+     * @param coverName Cover image file name
+     * @param width One of {@link #WIDTHS}
+     * @return The JPEG variant file
+     */
+    public Path getVariant(String coverName, int width) throws IOException {
+        if (!WIDTHS.contains(width)) {
+            throw new IllegalArgumentException("Unsupported cover width: " + width);
+        }
+        Path original = coversStorageLocation.resolve(coverName).normalize();
+        if (!original.startsWith(coversStorageLocation) || !Files.isRegularFile(original)) {
+            throw new IOException("Cover image not found: " + coverName);
+        }
+
+        Path variant = variantsLocation.resolve(String.valueOf(width)).resolve(baseName(coverName) + ".jpg");
+        if (touch(variant)) {
+            return variant;
+        }
+
+        Object lock = generationLocks.computeIfAbsent(variant, key -> new Object());
+        try {
+            synchronized (lock) {
+                if (touch(variant)) {
+                    return variant;
+                }
+                generate(original, variant, width);
+                return variant;
+            }
+        } finally {
+            generationLocks.remove(variant, lock);
+        }
+    }
+
+    /**
+     * Creates every variant of a cover ahead of the first request
+     */
+    public void generateAll(String coverName) throws IOException {
+        for (int width : WIDTHS) {
+            getVariant(coverName, width);
+        }
+    }
+
+    private void generate(Path original, Path variant, int width) throws IOException {
+        BufferedImage source = ImageIO.read(original.toFile());
+        if (source == null) {
+            throw new IOException("Unsupported cover image format: " + original.getFileName());
+        }
+
+        BufferedImage scaled = scale(source, Math.min(width, source.getWidth()));
+        Files.createDirectories(variant.getParent());
+        Path temp = Files.createTempFile(variant.getParent(), "variant-", ".tmp");
+        try {
+            if (!ImageIO.write(scaled, "jpg", temp.toFile())) {
+                throw new IOException("No JPEG writer available");
+            }
+            Files.move(temp, variant, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        register(variant, Files.size(variant));
+    }
+
+    /**
+     * Downscales in halving steps with bilinear filtering, which keeps covers sharp without the
+     * cost of area averaging; transparency is flattened onto white for JPEG
+     */
+    private BufferedImage scale(BufferedImage source, int width) {
+        int height = Math.max(1, (int) Math.round(source.getHeight() * (double) width / source.getWidth()));
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            BufferedImage step = new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, currentWidth, currentHeight);
+            graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            graphics.dispose();
+            current = step;
+        } while (currentWidth != width || currentHeight != height);
+        return current;
+    }
+
+    /**
+     * Marks a variant as used
+     *
+     * @return false if the variant doesn't exist yet
+     */
+    private synchronized boolean touch(Path variant) {
+        if (variants.get(variant) == null) {
+            return false;
+        }
+        if (!Files.exists(variant)) {
+            // Removed behind our back
+            totalBytes -= variants.remove(variant);
+            return false;
+        }
+        return true;
+    }
+
+    private synchronized void register(Path variant, long size) {
+        Long previous = variants.put(variant, size);
+        totalBytes += size - (previous != null ? previous : 0);
+
+        Iterator<Map.Entry<Path, Long>> eldest = variants.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<Path, Long> entry = eldest.next();
+            if (entry.getKey().equals(variant)) {
+                // Never evict the variant being served
+                continue;
+            }
+            try {
+                Files.deleteIfExists(entry.getKey());
+            } catch (IOException e) {
+                logger.warn("Could not evict cover variant {}", entry.getKey(), e);
+                continue;
+            }
+            totalBytes -= entry.getValue();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Rebuilds the LRU order from the files on disk, oldest first
+     */
+    private void loadExistingVariants() throws IOException {
+        try (Stream<Path> files = Files.walk(variantsLocation)) {
+            List<Path> existing = files.filter(Files::isRegularFile).toList();
+            for (Path file : existing) {
+                if (file.getFileName().toString().endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            existing.stream()
+                    .filter(Files::exists)
+                    .sorted(Comparator.comparingLong(this::lastModified))
+                    .forEach(file -> register(file, sizeOf(file)));
+        }
+        logger.info("Found {} cover variants using {} bytes", variants.size(), totalBytes);
+    }
+
+    private long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private String baseName(String coverName) {
+        int lastDot = coverName.lastIndexOf('.');
+        return lastDot > 0 ? coverName.substring(0, lastDot) : coverName;
+    }
+}
@@ -0,0 +1,113 @@
+package ca.yarbond.bookclub.service;
+
+import ca.yarbond.bookclub.dto.BookListItem;
+import ca.yarbond.bookclub.dto.DashboardSnapshot;
+import ca.yarbond.bookclub.event.ClubDataChangedEvent;
+import ca.yarbond.bookclub.model.Book;
+import ca.yarbond.bookclub.model.BookStatus;
+import ca.yarbond.bookclub.model.Member;
+import ca.yarbond.bookclub.model.MemberQueueItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.util.Pair;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves the shared part of the home page from a cached snapshot.
+ * The snapshot is dropped whenever a book, rating, completion, member or queue change commits
+ * and rebuilt on the next home page visit.
+ */
+@Service
+public class DashboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
+
+    private final BookService bookService;
+    private final RatingService ratingService;
+    private final MemberQueueService memberQueueService;
+    private final BookCompletionService bookCompletionService;
+
+    private volatile DashboardSnapshot snapshot;
+    private volatile boolean stale = true;
+
+    @Autowired
+    public DashboardService(BookService bookService, RatingService ratingService,
+                            MemberQueueService memberQueueService,
+                            BookCompletionService bookCompletionService) {
+        this.bookService = bookService;
+        this.ratingService = ratingService;
+        this.memberQueueService = memberQueueService;
+        this.bookCompletionService = bookCompletionService;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onClubDataChanged(ClubDataChangedEvent event) {
+        stale = true;
+    }
+
+    /**
+     * Gets the current dashboard, rebuilding it first if club data changed since it was built
+     */
+    public DashboardSnapshot getSnapshot() {
+        if (stale) {
+            synchronized (this) {
+                if (stale) {
+                    // Cleared before reading, so a change committed while building marks the result stale again
+                    stale = false;
+                    try {
+                        snapshot = buildSnapshot();
+                    } catch (RuntimeException e) {
+                        stale = true;
+                        throw e;
+                    }
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private DashboardSnapshot buildSnapshot() {
+        // The snapshot outlives the session, so the lazy columns it renders are loaded now
+        Book currentBook = bookService.getCurrentBookWithDetails();
+        Book nextBook = bookService.getNextBookWithDetails();
+
+        List<Member> membersWhoRead = List.of();
+        boolean currentBookCompletable = false;
+        List<BookListItem> currentOwnerWishlistBooks = List.of();
+        if (currentBook != null) {
+            membersWhoRead = bookCompletionService.getMembersWhoReadBook(currentBook.getId());
+            currentBookCompletable = membersWhoRead.size() >= bookCompletionService.getRequiredReadersCount();
+            if (currentBook.getOwner() != null) {
+                currentOwnerWishlistBooks = bookService.getBookListByOwnerIdAndStatus(
+                        currentBook.getOwner().getId(), BookStatus.WISHLIST);
+            }
+        }
+
+        Pair<MemberQueueItem, List<BookListItem>> nextMemberWithBooks =
+                bookService.getNextMemberWithWishlistBooks(currentBook);
+
+        List<BookListItem> recentlyCompletedBooks = bookService.getRecentlyCompletedBookList();
+        List<Long> recentlyCompletedIds = recentlyCompletedBooks.stream().map(BookListItem::getId).toList();
+        Map<Long, Map<String, Double>> bookRatings = ratingService.getAverageRatingsForBooks(recentlyCompletedIds);
+        Map<Long, Map<String, String>> bookFiles = bookService.getFilePathsForBooks(recentlyCompletedIds);
+
+        logger.debug("Dashboard snapshot rebuilt");
+        return new DashboardSnapshot(
+                currentBook,
+                nextBook,
+                List.copyOf(membersWhoRead),
+                currentBookCompletable,
+                List.copyOf(currentOwnerWishlistBooks),
+                nextMemberWithBooks != null ? nextMemberWithBooks.getFirst() : null,
+                nextMemberWithBooks != null ? List.copyOf(nextMemberWithBooks.getSecond()) : null,
+                List.copyOf(recentlyCompletedBooks),
+                Map.copyOf(bookRatings),
+                Map.copyOf(bookFiles),
+                List.copyOf(memberQueueService.getQueue()));
+    }
+}
@@ -1,184 +1,307 @@
 package ca.yarbond.bookclub.service;
 
 import ca.yarbond.bookclub.model.Book;
-import ca.yarbond.bookclub.repository.BookRepository;
+import ca.yarbond.bookclub.model.BookFile;
+import ca.yarbond.bookclub.repository.BookFileRepository;
+import ca.yarbond.bookclub.repository.StoredFileRepository;
+import ca.yarbond.bookclub.util.CoverImageStore;
 import ca.yarbond.bookclub.util.EpubCoverExtractor;
+import ca.yarbond.bookclub.util.OpenFileCache;
+import ca.yarbond.bookclub.util.OutboundHttpClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.time.Duration;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
-import java.util.UUID;
+import java.util.regex.Pattern;
 
 @Service
 public class FileStorageService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FileStorageService.class);
+
+    // Uploads are written here first, on the same file system, so they can be moved into place atomically
+    private static final String INCOMING_DIRECTORY = ".incoming";
+
+    private static final Pattern CONTENT_ADDRESSED_NAME = Pattern.compile("[0-9a-f]{64}\\.[a-z0-9]+");
+
+    // Referencing stored content and deleting its file run under the lock for its name, so an
+    // upload never keeps a file that a concurrent delete is about to remove
+    private static final int STORED_NAME_LOCKS = 64;
+    private final Object[] storedNameLocks = new Object[STORED_NAME_LOCKS];
+
     private final Path booksStorageLocation;
     private final Path coversStorageLocation;
     private final long maxFileSize;
     private final EpubCoverExtractor epubCoverExtractor;
-    private final BookRepository bookRepository;
+    private final CoverImageStore coverImageStore;
+    private final OutboundHttpClient outboundHttpClient;
+    private final BookFileRepository bookFileRepository;
+    private final StoredFileRepository storedFileRepository;
+    private final OpenFileCache openFileCache;
 
     // Set of allowed file extensions
     private static final Set<String> ALLOWED_EXTENSIONS = new HashSet<>(
             Arrays.asList("epub", "pdf", "mobi"));
 
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "epub", "application/epub+zip",
+            "pdf", "application/pdf",
+            "mobi", "application/x-mobipocket-ebook");
+
+    // Extensions for remote cover images by Content-Type prefix; image/jpg is a common misspelling
+    private static final Map<String, String> REMOTE_COVER_TYPES = Map.of(
+            "image/jpeg", "jpg",
+            "image/jpg", "jpg",
+            "image/png", "png",
+            "image/gif", "gif");
+
     @Autowired
     public FileStorageService(
             @Value("${app.storage.books-location}") String booksStorageLocation,
             @Value("${app.storage.covers-location}") String coversStorageLocation,
             @Value("${app.storage.max-file-size}") long maxFileSize,
             EpubCoverExtractor epubCoverExtractor,
-            BookRepository bookRepository) {
+            CoverImageStore coverImageStore,
+            OutboundHttpClient outboundHttpClient,
+            BookFileRepository bookFileRepository,
+            StoredFileRepository storedFileRepository,
+            OpenFileCache openFileCache) {
 
         this.booksStorageLocation = Paths.get(booksStorageLocation).toAbsolutePath().normalize();
         this.coversStorageLocation = Paths.get(coversStorageLocation).toAbsolutePath().normalize();
         this.maxFileSize = maxFileSize;
         this.epubCoverExtractor = epubCoverExtractor;
-        this.bookRepository = bookRepository;
+        this.coverImageStore = coverImageStore;
+        this.outboundHttpClient = outboundHttpClient;
+        this.bookFileRepository = bookFileRepository;
+        this.storedFileRepository = storedFileRepository;
+        this.openFileCache = openFileCache;
+        Arrays.setAll(storedNameLocks, i -> new Object());
 
         try {
-            Files.createDirectories(this.booksStorageLocation);
+            Files.createDirectories(this.booksStorageLocation.resolve(INCOMING_DIRECTORY));
             Files.createDirectories(this.coversStorageLocation);
         } catch (IOException ex) {
             throw new RuntimeException("Could not create the storage directories", ex);
         }
     }
 
-    public String storeBookFile(MultipartFile file, Book book) {
-        try {
-            // Check if file is empty
-            if (file.isEmpty()) {
-                throw new RuntimeException("Cannot store empty file");
-            }
-
-            // Check file size
-            if (file.getSize() > maxFileSize) {
-                throw new RuntimeException("File size exceeds maximum limit of " + (maxFileSize / 1024 / 1024) + "MB");
-            }
+    /**
+     * Stores an uploaded book file by content. The upload is hashed while it is copied, and
+     * content that is already stored, for this or another book, is reused instead of kept twice.
+     * Must run in the transaction that saves the returned metadata, which holds a reference to the content.
+     *
+     * @return The file's metadata, not yet attached to the book
+     */
+    public BookFile storeBookFile(MultipartFile file, Book book) {
+        // Check if file is empty
+        if (file.isEmpty()) {
+            throw new RuntimeException("Cannot store empty file");
+        }
 
-            // Get file extension from original filename
-            String originalFilename = file.getOriginalFilename();
-            String fileExtension = getFileExtension(originalFilename);
+        // Check file size
+        if (file.getSize() > maxFileSize) {
+            throw new RuntimeException("File size exceeds maximum limit of " + (maxFileSize / 1024 / 1024) + "MB");
+        }
 
-            // Validate file extension
-            if (!ALLOWED_EXTENSIONS.contains(fileExtension.toLowerCase())) {
-                throw new RuntimeException("Invalid file format. Allowed formats are: epub, pdf, mobi");
-            }
+        // Get file extension from original filename
+        String originalFilename = file.getOriginalFilename();
+        String format = getFileExtension(originalFilename).toLowerCase();
 
-            // Create readable filename based on book title and author
-            // Both title and author can contain Cyrillic characters
-            String safeTitle = sanitizeFileName(book.getTitle());
-            String safeAuthor = sanitizeFileName(book.getAuthor());
+        // Validate file extension
+        if (!ALLOWED_EXTENSIONS.contains(format)) {
+            throw new RuntimeException("Invalid file format. Allowed formats are: epub, pdf, mobi");
+        }
 
-            // Combine title and author into a nice filename
-            String filename = safeTitle;
-            if (safeAuthor != null && !safeAuthor.isEmpty() && !safeAuthor.equals("untitled")) {
-                filename = filename + "-" + safeAuthor;
+        Path incoming = null;
+        try {
+            // Copy to a temporary file, computing the checksum on the way
+            incoming = Files.createTempFile(booksStorageLocation.resolve(INCOMING_DIRECTORY), "upload-", ".part");
+            MessageDigest digest = sha256Digest();
+            long size;
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                size = Files.copy(in, incoming, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            String storedName = sha256 + "." + format;
+
+            synchronized (lockFor(storedName)) {
+                // Referenced first: once the row exists, its file is no longer deleted, so a file
+                // found below stays. A file seen before that could belong to content being released.
+                if (storedFileRepository.incrementRefCount(storedName) == 0) {
+                    // First upload of this content. The row is committed on its own, so an upload that
+                    // fails later leaves it unreferenced, like its file.
+                    try {
+                        storedFileRepository.insertUnreferenced(storedName, sha256, size, LocalDateTime.now());
+                    } catch (DataIntegrityViolationException e) {
+                        // A concurrent upload of the same content inserted it first
+                    }
+                    if (storedFileRepository.incrementRefCount(storedName) == 0) {
+                        throw new RuntimeException("Could not record stored file " + storedName);
+                    }
+                }
+
+                Path target = resolveBookPath(storedName);
+                if (Files.exists(target)) {
+                    // Identical content is already stored
+                    Files.delete(incoming);
+                } else {
+                    Files.createDirectories(target.getParent());
+                    Files.move(incoming, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+                incoming = null;
             }
 
-             String randomSuffix = UUID.randomUUID().toString().substring(0, 4);
-            filename = filename + "-" + randomSuffix;
-
-
-            // Add the extension
-            filename = filename + "." + fileExtension.toLowerCase();
-
-            // Save the file
-            Path targetLocation = this.booksStorageLocation.resolve(filename);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-
-            return filename;
+            return new BookFile(format, storedName, displayName(book, format), size, sha256,
+                    contentTypeFor(format));
         } catch (IOException ex) {
             throw new RuntimeException("Could not store file", ex);
+        } finally {
+            if (incoming != null) {
+                try {
+                    Files.deleteIfExists(incoming);
+                } catch (IOException e) {
+                    logger.warn("Could not remove incomplete upload {}", incoming, e);
+                }
+            }
         }
     }
 
     /**
-     * Downloads a cover image from a remote URL and saves it for a book
+     * Downloads a cover image from a remote URL into the covers storage location.
+     * The file is named by its content, so downloading the same image again reuses it.
+     * Goes through the shared outbound client, which limits concurrency, time and size.
      *
-     * @param book The book to associate the cover with
      * @param imageUrl The URL of the image to download
      * @return The filename of the saved cover image
      */
-    public String downloadRemoteCoverImage(Book book, String imageUrl) {
+    public String downloadRemoteCoverImage(String imageUrl) {
         try {
-            // Generate a unique filename
-            String filename = UUID.randomUUID() + ".jpg";
-            Path coverPath = this.coversStorageLocation.resolve(filename);
-
-            // Create an HTTP client
-            HttpClient client = HttpClient.newBuilder()
-                    .followRedirects(HttpClient.Redirect.NORMAL)
-                    .connectTimeout(Duration.ofSeconds(10))
-                    .build();
-
-            // Send the request to get the image
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(imageUrl))
-                    .GET()
-                    .build();
-
-            // Download the image
-            HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
-
-            if (response.statusCode() != 200) {
-                throw new RuntimeException("Failed to download image: HTTP status " + response.statusCode());
-            }
-
-            // Save the image
-            try (InputStream inputStream = response.body()) {
-                Files.copy(inputStream, coverPath, StandardCopyOption.REPLACE_EXISTING);
-            }
-
-            // Update the book
-            book.setCoverImagePath(filename);
-            bookRepository.save(book);
-
-            return filename;
+            return outboundHttpClient.get(URI.create(imageUrl), "image/jpeg, image/png, image/gif",
+                    (statusCode, headers, body) -> {
+                        if (statusCode != 200) {
+                            throw new IOException("HTTP status " + statusCode);
+                        }
+
+                        // Only formats the cover pages and thumbnails can handle are stored
+                        String contentType = headers.firstValue("Content-Type").orElse("").toLowerCase();
+                        String extension = REMOTE_COVER_TYPES.entrySet().stream()
+                                .filter(type -> contentType.startsWith(type.getKey()))
+                                .map(Map.Entry::getValue)
+                                .findFirst()
+                                .orElseThrow(() -> new IOException("Not a supported image type: " + contentType));
+                        return coverImageStore.store(body, extension);
+                    });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while downloading remote cover image", e);
         } catch (Exception e) {
             throw new RuntimeException("Error downloading remote cover image: " + e.getMessage(), e);
         }
     }
 
-    public String extractCoverFromEpub(MultipartFile file) {
-        if (file.isEmpty() || !getFileExtension(file.getOriginalFilename()).equalsIgnoreCase("epub")) {
+    /**
+     * Extracts the cover of a stored EPUB, reading only the entries needed to find and copy it
+     *
+     * @return The cover image file name, or null if the file is not an EPUB or has no cover
+     */
+    public String extractCoverFromEpub(BookFile bookFile) {
+        if (!"epub".equals(bookFile.getFormat())) {
             return null;
         }
 
-        return epubCoverExtractor.extractCover(file);
+        return epubCoverExtractor.extractCover(resolveBookPath(bookFile.getStoredName()));
     }
 
-    public void deleteBookFile(String filename) {
-        if (filename == null || filename.isEmpty()) {
+    /**
+     * Drops a book's reference to stored content. The file is deleted after the transaction
+     * commits, once no book references it any more.
+     *
+     * @param storedName The book file's stored name
+     */
+    public void releaseBookFile(String storedName) {
+        if (storedName == null || storedName.isEmpty()) {
             return;
         }
 
-        try {
-            Path filePath = this.booksStorageLocation.resolve(filename).normalize();
-            Files.deleteIfExists(filePath);
-        } catch (IOException ex) {
-            throw new RuntimeException("Could not delete file: " + filename, ex);
+        boolean unreferenced;
+        if (storedFileRepository.decrementRefCount(storedName) > 0) {
+            unreferenced = storedFileRepository.deleteIfUnreferenced(storedName) > 0;
+        } else {
+            // Not in the content store: a file kept under its old flat name
+            unreferenced = !CONTENT_ADDRESSED_NAME.matcher(storedName).matches();
+        }
+        if (!unreferenced) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Deleting now would lose content that a rollback brings back into use
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteStoredFile(storedName);
+                }
+            });
+        } else {
+            deleteStoredFile(storedName);
+        }
+    }
+
+    private void deleteStoredFile(String storedName) {
+        synchronized (lockFor(storedName)) {
+            // An identical upload may have stored the content again in the meantime
+            if (storedFileRepository.existsById(storedName)) {
+                return;
+            }
+            Path filePath = resolveBookPath(storedName);
+            try {
+                // A cached channel would keep serving the deleted file's content
+                openFileCache.invalidate(filePath);
+                Files.deleteIfExists(filePath);
+            } catch (IOException ex) {
+                logger.error("Could not delete stored book file {}", filePath, ex);
+            }
         }
     }
 
+    private Object lockFor(String storedName) {
+        return storedNameLocks[Math.floorMod(storedName.hashCode(), STORED_NAME_LOCKS)];
+    }
+
+    /**
+     * Metadata of a book's file in one format
+     */
+    public Optional<BookFile> findBookFile(Long bookId, String format) {
+        return bookFileRepository.findByBookIdAndFormat(bookId, format.toLowerCase());
+    }
+
     public Path loadBookAsResource(String filename) {
         try {
-            Path filePath = this.booksStorageLocation.resolve(filename).normalize();
+            Path filePath = resolveBookPath(filename);
             if (!Files.exists(filePath)) {
                 throw new RuntimeException("File not found: " + filename);
             }
@@ -211,6 +334,57 @@ public class FileStorageService {
         return filename.substring(lastDotIndex + 1);
     }
 
+    /**
+     * MIME type of a book file format
+     *
+     * @param format Lowercase file extension
+     * @return The content type, or application/octet-stream for unknown formats
+     */
+    public static String contentTypeFor(String format) {
+        return CONTENT_TYPES.getOrDefault(format, "application/octet-stream");
+    }
+
+    /**
+     * Location of a stored book file: aa/bb/<sha256>.<ext> for content-addressed names,
+     * so no directory grows too large, and the storage root for older flat names
+     */
+    private Path resolveBookPath(String storedName) {
+        Path filePath = CONTENT_ADDRESSED_NAME.matcher(storedName).matches()
+                ? booksStorageLocation.resolve(storedName.substring(0, 2))
+                        .resolve(storedName.substring(2, 4))
+                        .resolve(storedName)
+                : booksStorageLocation.resolve(storedName);
+        filePath = filePath.normalize();
+        if (!filePath.startsWith(booksStorageLocation)) {
+            throw new RuntimeException("Invalid book file name: " + storedName);
+        }
+        return filePath;
+    }
+
+    /**
+     * Readable file name for downloads, e.g. Title-Author.epub
+     * Both title and author can contain Cyrillic characters
+     */
+    private String displayName(Book book, String format) {
+        String safeTitle = sanitizeFileName(book.getTitle());
+        String safeAuthor = sanitizeFileName(book.getAuthor());
+
+        String filename = safeTitle;
+        if (!safeAuthor.equals("untitled")) {
+            filename = filename + "-" + safeAuthor;
+        }
+        return filename + "." + format;
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * Sanitize filename by removing problematic characters for filesystem
      * while preserving Cyrillic and other non-Latin characters
@@ -4,6 +4,7 @@ import ca.yarbond.bookclub.dto.BookSearchDto;
 import ca.yarbond.bookclub.dto.GoogleBooksResponse;
 import ca.yarbond.bookclub.dto.GoogleBooksResponse.GoogleBookItem;
 import ca.yarbond.bookclub.dto.GoogleBooksResponse.VolumeInfo;
+import ca.yarbond.bookclub.util.OutboundHttpClient;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,14 +14,12 @@ import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
-import java.time.Duration;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
@@ -32,7 +31,7 @@ public class GoogleBooksService {
     @Value("${google.books.api.key:}")
     private String apiKey;
 
-    private final HttpClient httpClient;
+    private final OutboundHttpClient outboundHttpClient;
     private final ObjectMapper objectMapper;
     private final Map<String, List<BookSearchDto>> searchCache = new ConcurrentHashMap<>();
 
@@ -41,15 +40,14 @@ public class GoogleBooksService {
     private final Map<String, Long> cacheTimestamps = new ConcurrentHashMap<>();
 
 
-    public GoogleBooksService(ObjectMapper objectMapper) {
+    public GoogleBooksService(ObjectMapper objectMapper, OutboundHttpClient outboundHttpClient) {
         this.objectMapper = objectMapper;
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
-                .build();
+        this.outboundHttpClient = outboundHttpClient;
     }
 
     /**
-     * Search for books using Google Books API
+     * Search for books using Google Books API, for the interactive search.
+     * A failed lookup is logged and shows as no results.
      *
      * @param query The search query text
      * @return List of book search results
@@ -59,6 +57,47 @@ public class GoogleBooksService {
             return Collections.emptyList();
         }
 
+        try {
+            return fetchBooks(query);
+        } catch (IOException e) {
+            logger.error("Error searching books: {}", e.getMessage(), e);
+            return Collections.emptyList();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Looks up the volume matching a book's title and author, for filling in missing details
+     *
+     * @param title The book title
+     * @param author The book author, may be null
+     * @return The first result with the same title, or empty if there is none
+     * @throws IOException If Google Books couldn't be asked, so the caller can try again later
+     */
+    public Optional<BookSearchDto> findBestMatch(String title, String author)
+            throws IOException, InterruptedException {
+        if (title == null || title.isBlank()) {
+            return Optional.empty();
+        }
+
+        String query = "intitle:" + title.trim();
+        if (author != null && !author.isBlank()) {
+            query += " inauthor:" + author.trim();
+        }
+        String normalizedTitle = title.trim().toLowerCase();
+        return fetchBooks(query).stream()
+                .filter(result -> result.getTitle() != null
+                        && result.getTitle().trim().toLowerCase().equals(normalizedTitle))
+                .findFirst();
+    }
+
+    /**
+     * Searches Google Books, answering repeated queries from the cache. Only successful
+     * responses are cached.
+     */
+    private List<BookSearchDto> fetchBooks(String query) throws IOException, InterruptedException {
         // Clean up expired cache entries
         cleanExpiredCache();
 
@@ -69,45 +108,33 @@ public class GoogleBooksService {
             return searchCache.get(cacheKey);
         }
 
+        // Build search URL
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(API_BASE_URL)
+                .queryParam("q", query)
+                .queryParam("maxResults", 10);
 
-        try {
-            // Build search URL
-            UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(API_BASE_URL)
-                    .queryParam("q", query)
-                    .queryParam("maxResults", 10);
-
-            if (apiKey != null && !apiKey.trim().isEmpty()) {
-                builder.queryParam("key", apiKey);
-            }
-
-            String url = builder.build().encode().toUriString();
-            logger.debug("Searching books with URL: {}", url);
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .header("Accept", "application/json")
-                    .GET()
-                    .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (apiKey != null && !apiKey.trim().isEmpty()) {
+            builder.queryParam("key", apiKey);
+        }
 
-            if (response.statusCode() != 200) {
-                logger.error("Error response from Google Books API: {} {}", response.statusCode(), response.body());
-                return Collections.emptyList();
-            }
+        String url = builder.build().encode().toUriString();
+        logger.debug("Searching books with URL: {}", url);
 
-            GoogleBooksResponse booksResponse = objectMapper.readValue(response.body(), GoogleBooksResponse.class);
-            List<BookSearchDto> results = mapToBookDtos(booksResponse);
+        GoogleBooksResponse booksResponse = outboundHttpClient.get(URI.create(url), "application/json",
+                (statusCode, headers, body) -> {
+                    if (statusCode != 200) {
+                        throw new IOException("Error response from Google Books API: " + statusCode + " "
+                                + new String(body.readAllBytes(), StandardCharsets.UTF_8));
+                    }
+                    return objectMapper.readValue(body, GoogleBooksResponse.class);
+                });
+        List<BookSearchDto> results = mapToBookDtos(booksResponse);
 
-            // Cache results
-            searchCache.put(cacheKey, results);
-            cacheTimestamps.put(cacheKey, System.currentTimeMillis());
+        // Cache results
+        searchCache.put(cacheKey, results);
+        cacheTimestamps.put(cacheKey, System.currentTimeMillis());
 
-            return results;
-        } catch (IOException | InterruptedException e) {
-            logger.error("Error searching books: {}", e.getMessage(), e);
-            return Collections.emptyList();
-        }
+        return results;
     }
 
     /**
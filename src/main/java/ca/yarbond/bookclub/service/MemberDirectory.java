@@ -0,0 +1,121 @@
+package ca.yarbond.bookclub.service;
+
+import ca.yarbond.bookclub.event.ClubDataChangedEvent;
+import ca.yarbond.bookclub.model.Member;
+import ca.yarbond.bookclub.repository.MemberRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory directory of all members, for dropdowns, member tables and lookups by id or name.
+ * Reloaded as a whole once a member change commits and swapped in with a single write,
+ * so readers always see one consistent set of members.
+ */
+@Component
+public class MemberDirectory {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemberDirectory.class);
+
+    private final MemberRepository memberRepository;
+
+    // Null until first used or after startup, when initializers may have changed members behind our back
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public MemberDirectory(MemberRepository memberRepository) {
+        this.memberRepository = memberRepository;
+    }
+
+    /**
+     * Drops anything loaded while the application was starting
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        snapshot = null;
+    }
+
+    /**
+     * Reloads the directory once a member change has been committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onClubDataChanged(ClubDataChangedEvent event) {
+        if (event.getSource() == ClubDataChangedEvent.Source.MEMBER) {
+            // Same lock as the first load, so an older load can't overwrite this one
+            synchronized (this) {
+                snapshot = load();
+            }
+        }
+    }
+
+    /**
+     * All members, ordered by id
+     */
+    public List<Member> getAllMembers() {
+        return current().all();
+    }
+
+    /**
+     * Active members, ordered by id
+     */
+    public List<Member> getActiveMembers() {
+        return current().active();
+    }
+
+    public int getActiveMemberCount() {
+        return current().active().size();
+    }
+
+    public Optional<Member> findById(Long id) {
+        return Optional.ofNullable(current().byId().get(id));
+    }
+
+    public Optional<Member> findByName(String name) {
+        return Optional.ofNullable(current().byName().get(name));
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = load();
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Snapshot load() {
+        List<Member> all = memberRepository.findAll().stream()
+                .sorted(Comparator.comparing(Member::getId))
+                .toList();
+
+        logger.debug("Member directory loaded: {} members", all.size());
+        return new Snapshot(
+                all,
+                all.stream().filter(Member::isActive).toList(),
+                all.stream().collect(Collectors.toUnmodifiableMap(Member::getId, Function.identity())),
+                all.stream().collect(Collectors.toUnmodifiableMap(Member::getName, Function.identity())));
+    }
+
+    private record Snapshot(List<Member> all, List<Member> active,
+                            Map<Long, Member> byId, Map<String, Member> byName) {
+    }
+}
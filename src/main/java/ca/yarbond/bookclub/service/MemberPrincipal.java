@@ -0,0 +1,92 @@
+package ca.yarbond.bookclub.service;
+
+import ca.yarbond.bookclub.model.Member;
+import lombok.Getter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The logged-in member as kept in the security context.
+ * Carries the member id, role and active flag, so the current member is known without a database lookup.
+ */
+@Getter
+public class MemberPrincipal implements UserDetails, CredentialsContainer {
+
+    private final Long memberId;
+    private final String name;
+    private final Member.Role role;
+    private final boolean active;
+    private String passwordHash;
+
+    private MemberPrincipal(Long memberId, String name, Member.Role role, boolean active, String passwordHash) {
+        this.memberId = memberId;
+        this.name = name;
+        this.role = role;
+        this.active = active;
+        this.passwordHash = passwordHash;
+    }
+
+    public static MemberPrincipal from(Member member) {
+        return new MemberPrincipal(member.getId(), member.getName(), member.getRole(),
+                member.isActive(), member.getPasswordHash());
+    }
+
+    /**
+     * Gets the principal of the current request
+     */
+    public static MemberPrincipal current() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !(auth.getPrincipal() instanceof MemberPrincipal principal)) {
+            throw new RuntimeException("No member is logged in");
+        }
+        return principal;
+    }
+
+    /**
+     * Gets the id of the member making the current request
+     */
+    public static Long currentMemberId() {
+        return current().getMemberId();
+    }
+
+    /**
+     * Whether this principal still reflects the member's name, role and active flag
+     */
+    public boolean matches(Member member) {
+        return memberId.equals(member.getId())
+                && name.equals(member.getName())
+                && role == member.getRole()
+                && active == member.isActive();
+    }
+
+    public boolean isAdmin() {
+        return role == Member.Role.ADMIN;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    @Override
+    public String getPassword() {
+        return passwordHash;
+    }
+
+    @Override
+    public String getUsername() {
+        return name;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        passwordHash = null;
+    }
+}
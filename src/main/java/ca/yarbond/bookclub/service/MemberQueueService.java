@@ -1,35 +1,77 @@
 package ca.yarbond.bookclub.service;
 
+import ca.yarbond.bookclub.event.ClubDataChangedEvent;
 import ca.yarbond.bookclub.model.Member;
 import ca.yarbond.bookclub.model.MemberQueueItem;
+import ca.yarbond.bookclub.model.MemberQueueState;
 import ca.yarbond.bookclub.repository.MemberQueueRepository;
+import ca.yarbond.bookclub.repository.MemberQueueStateRepository;
 import ca.yarbond.bookclub.repository.MemberRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Manages the reading queue as a circular list.
+ * Members are ordered by sparse ranks and the queue starts at the head rank stored in
+ * MemberQueueState, so rotating only moves the head and a move or insert only writes
+ * the affected member (plus the head when the first member changes).
+ * Ranks are unique; changes that pick a new rank hold a lock on the queue state
+ * so two of them can't take the same gap.
+ */
 @Service
 public class MemberQueueService {
 
+    // Room left between neighbouring ranks so most moves fit in between without renumbering
+    private static final long RANK_GAP = 1024;
+
     private final MemberQueueRepository memberQueueRepository;
+    private final MemberQueueStateRepository memberQueueStateRepository;
     private final MemberRepository memberRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public MemberQueueService(
             MemberQueueRepository memberQueueRepository,
-            MemberRepository memberRepository) {
+            MemberQueueStateRepository memberQueueStateRepository,
+            MemberRepository memberRepository,
+            ApplicationEventPublisher eventPublisher) {
         this.memberQueueRepository = memberQueueRepository;
+        this.memberQueueStateRepository = memberQueueStateRepository;
         this.memberRepository = memberRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
-     * Gets the ordered list of members in the queue
+     * Gets the ordered list of members in the queue, starting with the current member.
+     * Each item's position is set to its place in that order.
      */
     public List<MemberQueueItem> getQueue() {
-        return memberQueueRepository.findByOrderByPositionAsc();
+        List<MemberQueueItem> byRank = memberQueueRepository.findByOrderByQueueRankAsc();
+        long headRank = getHeadRank();
+
+        // Members from the head to the highest rank, then wrap around to the lowest
+        List<MemberQueueItem> queue = new ArrayList<>(byRank.size());
+        for (MemberQueueItem item : byRank) {
+            if (item.getQueueRank() >= headRank) {
+                queue.add(item);
+            }
+        }
+        for (MemberQueueItem item : byRank) {
+            if (item.getQueueRank() < headRank) {
+                queue.add(item);
+            }
+        }
+
+        for (int i = 0; i < queue.size(); i++) {
+            queue.get(i).setPosition(i);
+        }
+        return queue;
     }
 
 
@@ -37,26 +79,34 @@ public class MemberQueueService {
      * Gets the current member (position 0)
      */
     public MemberQueueItem getCurrentMember() {
-        return memberQueueRepository.findByPosition(0)
-                .orElseThrow(() -> new RuntimeException("No member at position 0 found"));
+        List<MemberQueueItem> queue = getQueue();
+        if (queue.isEmpty()) {
+            throw new RuntimeException("No member at position 0 found");
+        }
+        return queue.get(0);
     }
 
     /**
      * Gets the next member in queue (position 1)
      */
     public MemberQueueItem getNextMember() {
-        return memberQueueRepository.findByPosition(1)
-                .orElseThrow(() -> new RuntimeException("No member at position 1 found"));
+        List<MemberQueueItem> queue = getQueue();
+        if (queue.size() < 2) {
+            throw new RuntimeException("No member at position 1 found");
+        }
+        return queue.get(1);
     }
 
     /**
-     * Gets a queue item by member ID
+     * Gets a queue item by member ID, with its position in the queue
      */
     public MemberQueueItem getQueueItemByMemberId(Long memberId) {
         Member member = memberRepository.findById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found with id: " + memberId));
 
-        return memberQueueRepository.findByMember(member)
+        return getQueue().stream()
+                .filter(item -> item.getMember().getId().equals(memberId))
+                .findFirst()
                 .orElseThrow(() -> new RuntimeException("Member not found in queue: " + member.getName()));
     }
 
@@ -68,24 +118,21 @@ public class MemberQueueService {
         Member member = memberRepository.findById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found with id: " + memberId));
 
+        lockQueue();
+
         // Check if member already exists in queue
         Optional<MemberQueueItem> existingQueueItem = memberQueueRepository.findByMember(member);
         if (existingQueueItem.isPresent()) {
             return;
         }
 
-        // Find the highest position
-        int maxPosition = memberQueueRepository.findAll().stream()
-                .mapToInt(MemberQueueItem::getPosition)
-                .max()
-                .orElse(-1);
-
         // Create new queue item at the end of the queue
         MemberQueueItem newQueueItem = new MemberQueueItem();
         newQueueItem.setMember(member);
-        newQueueItem.setPosition(maxPosition + 1);
 
-        memberQueueRepository.save(newQueueItem);
+        List<MemberQueueItem> queue = getQueue();
+        insertAt(newQueueItem, queue, queue.size());
+        publishQueueChange();
     }
 
     /**
@@ -93,6 +140,7 @@ public class MemberQueueService {
      */
     @Transactional
     public void moveMemberToPosition(Long memberId, int newPosition) {
+        lockQueue();
         MemberQueueItem queueItem = getQueueItemByMemberId(memberId);
         int oldPosition = queueItem.getPosition();
 
@@ -101,32 +149,12 @@ public class MemberQueueService {
             return;
         }
 
-        // Adjust positions for all affected members
-        List<MemberQueueItem> allMembers = getQueue();
-
-        if (oldPosition < newPosition) {
-            // Moving down - shift members between oldPosition+1 and newPosition UP by one position
-            for (MemberQueueItem member : allMembers) {
-                int pos = member.getPosition();
-                // Only affect members BETWEEN the old and new positions, excluding the moved member
-                if (pos > oldPosition && pos <= newPosition && !member.getMember().getId().equals(memberId)) {
-                    member.setPosition(pos - 1);
-                }
-            }
-        } else { // oldPosition > newPosition
-            // Moving up - shift members between newPosition and oldPosition-1 DOWN by one position
-            for (MemberQueueItem member : allMembers) {
-                int pos = member.getPosition();
-                // Only affect members BETWEEN the new and old positions, excluding the moved member
-                if (pos >= newPosition && pos < oldPosition && !member.getMember().getId().equals(memberId)) {
-                    member.setPosition(pos + 1);
-                }
-            }
-        }
+        List<MemberQueueItem> others = getQueue();
+        others.removeIf(item -> item.getId().equals(queueItem.getId()));
 
-        // Set new position for the moved member
-        queueItem.setPosition(newPosition);
-        memberQueueRepository.saveAll(allMembers);
+        // Only the moved member gets a new rank, between its new neighbours
+        insertAt(queueItem, others, Math.max(0, Math.min(newPosition, others.size())));
+        publishQueueChange();
     }
 
     /**
@@ -141,13 +169,14 @@ public class MemberQueueService {
      * Rotates the queue by a specified number of positions.
      * Positive values move members forward in the queue (current members to the end),
      * while negative values move members backward (members from the end to the front).
+     * Only the head pointer is updated.
      *
      * @param positions Number of positions to rotate. Must be less than the queue size.
      */
     @Transactional
     public void rotateQueueByPositions(int positions) {
-        List<MemberQueueItem> allMembers = getQueue();
-        int queueSize = allMembers.size();
+        List<MemberQueueItem> queue = getQueue();
+        int queueSize = queue.size();
 
         // Nothing to rotate if queue has 0 or 1 members
         if (queueSize <= 1) {
@@ -165,26 +194,18 @@ public class MemberQueueService {
             return;
         }
 
-        // Calculate and set new positions
-        for (MemberQueueItem item : allMembers) {
-            int oldPosition = item.getPosition();
-            int newPosition = (oldPosition + queueSize - effectivePositions) % queueSize;
-            item.setPosition(newPosition);
-
-        }
-        memberQueueRepository.saveAll(allMembers);
+        setHeadRank(queue.get(effectivePositions).getQueueRank());
+        publishQueueChange();
     }
 
     @Transactional
     public void rotateToMember(Member member) {
-        MemberQueueItem queueItemByMemberId = getQueueItemByMemberId(member.getId());
-        int numOfPositionsToRotate = queueItemByMemberId.getPosition();
+        MemberQueueItem queueItem = memberQueueRepository.findByMember(member)
+                .orElseThrow(() -> new RuntimeException("Member not found in queue: " + member.getName()));
 
-        if(numOfPositionsToRotate == 0) {
-            return;
+        if (setHeadRank(queueItem.getQueueRank())) {
+            publishQueueChange();
         }
-
-        rotateQueueByPositions(numOfPositionsToRotate);
     }
 
     /**
@@ -192,6 +213,7 @@ public class MemberQueueService {
      */
     @Transactional
     public void skipCurrentMember(Long placeAfterId) {
+        lockQueue();
         MemberQueueItem currentMember = getCurrentMember();
         MemberQueueItem placeAfterMember = getQueueItemByMemberId(placeAfterId);
 
@@ -200,23 +222,111 @@ public class MemberQueueService {
     }
 
     /**
-     * Removes a member from the queue
+     * Removes a member from the queue.
+     * Nobody else's rank changes; if the removed member was current,
+     * the head now falls on the member after them.
      */
     @Transactional
     public void removeMemberFromQueue(Long memberId) {
         MemberQueueItem queueItem = getQueueItemByMemberId(memberId);
-        int position = queueItem.getPosition();
 
         // Delete the queue item
         memberQueueRepository.delete(queueItem);
+        publishQueueChange();
+    }
 
-        // Adjust positions for all members after the removed one
-        List<MemberQueueItem> allMembers = getQueue();
-        allMembers.forEach(m -> {
-            if (m.getPosition() > position) {
-                m.setPosition(m.getPosition() - 1);
-                memberQueueRepository.save(m);
-            }
-        });
+    /**
+     * Gives an item a rank between its neighbours at the given index of the queue
+     * and moves the head so the queue still starts where it should
+     *
+     * @param item Item to place; it must not be in the queue list
+     * @param queue The other items in queue order
+     * @param index Position the item should take, from 0 to the queue size
+     */
+    private void insertAt(MemberQueueItem item, List<MemberQueueItem> queue, int index) {
+        if (queue.isEmpty()) {
+            item.setQueueRank(0);
+            memberQueueRepository.save(item);
+            setHeadRank(0);
+            return;
+        }
+
+        // The queue is circular: the last member is followed by the first
+        long before = queue.get((index - 1 + queue.size()) % queue.size()).getQueueRank();
+        long after = queue.get(index % queue.size()).getQueueRank();
+        Long rank = rankBetween(before, after);
+
+        // A taken rank means the queue read was out of date; renumbering rewrites every rank anyway
+        if (rank == null || memberQueueRepository.existsByQueueRank(rank)) {
+            renumber(item, queue, index);
+            return;
+        }
+
+        item.setQueueRank(rank);
+        memberQueueRepository.save(item);
+        setHeadRank(index == 0 ? rank : queue.get(0).getQueueRank());
+    }
+
+    /**
+     * A rank that sorts circularly between two neighbouring ranks, or null if there is no room left
+     */
+    private Long rankBetween(long before, long after) {
+        if (before < after) {
+            return after - before > 1 ? before + (after - before) / 2 : null;
+        }
+        // The wrap-around point lies between the two, so anything above the highest rank fits
+        return before <= Long.MAX_VALUE - RANK_GAP ? before + RANK_GAP : null;
+    }
+
+    /**
+     * Spreads all ranks out again in queue order. Only needed once repeated moves
+     * into the same gap have used up the room between two ranks.
+     */
+    private void renumber(MemberQueueItem item, List<MemberQueueItem> queue, int index) {
+        List<MemberQueueItem> ordered = new ArrayList<>(queue);
+        ordered.add(index, item);
+
+        // Ranks are never negative, so parking everyone below zero first keeps the unique
+        // index satisfied whatever order the rows are updated in
+        for (int i = 0; i < ordered.size(); i++) {
+            ordered.get(i).setQueueRank(-1 - i);
+        }
+        memberQueueRepository.saveAllAndFlush(ordered);
+
+        for (int i = 0; i < ordered.size(); i++) {
+            ordered.get(i).setQueueRank(i * RANK_GAP);
+        }
+        memberQueueRepository.saveAll(ordered);
+        setHeadRank(0);
+    }
+
+    private void lockQueue() {
+        memberQueueStateRepository.findLockedById(MemberQueueState.SINGLETON_ID);
+    }
+
+    private long getHeadRank() {
+        return memberQueueStateRepository.findById(MemberQueueState.SINGLETON_ID)
+                .map(MemberQueueState::getHeadRank)
+                .orElse(Long.MIN_VALUE);
+    }
+
+    /**
+     * Points the head at a rank
+     *
+     * @return true if the head moved
+     */
+    private boolean setHeadRank(long headRank) {
+        MemberQueueState state = memberQueueStateRepository.findById(MemberQueueState.SINGLETON_ID)
+                .orElseGet(() -> new MemberQueueState(Long.MIN_VALUE));
+        if (state.getHeadRank() == headRank) {
+            return false;
+        }
+        state.setHeadRank(headRank);
+        memberQueueStateRepository.save(state);
+        return true;
+    }
+
+    private void publishQueueChange() {
+        eventPublisher.publishEvent(new ClubDataChangedEvent(ClubDataChangedEvent.Source.QUEUE));
     }
-}
\ No newline at end of file
+}
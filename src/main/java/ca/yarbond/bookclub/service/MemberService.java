@@ -1,8 +1,11 @@
 package ca.yarbond.bookclub.service;
 
+import ca.yarbond.bookclub.event.ClubDataChangedEvent;
+import ca.yarbond.bookclub.event.SearchableBookChangedEvent;
 import ca.yarbond.bookclub.model.Member;
 import ca.yarbond.bookclub.repository.MemberRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,35 +18,48 @@ public class MemberService {
     private final MemberRepository memberRepository;
     private final MemberQueueService memberQueueService;
     private final PasswordEncoder passwordEncoder;
+    private final MemberDirectory memberDirectory;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public MemberService(MemberRepository memberRepository, MemberQueueService memberQueueService, PasswordEncoder passwordEncoder) {
+    public MemberService(MemberRepository memberRepository, MemberQueueService memberQueueService,
+                         PasswordEncoder passwordEncoder,
+                         MemberDirectory memberDirectory, ApplicationEventPublisher eventPublisher) {
         this.memberRepository = memberRepository;
         this.memberQueueService = memberQueueService;
         this.passwordEncoder = passwordEncoder;
+        this.memberDirectory = memberDirectory;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
      * Get all members
+     * Reads come from the member directory and return shared instances, so they must not be modified;
+     * changes below load the member from the repository instead
      */
     public List<Member> getAllMembers() {
-        return memberRepository.findAll();
+        return memberDirectory.getAllMembers();
     }
     
     /**
      * Get all active members
      */
     public List<Member> getActiveMembers() {
-        return memberRepository.findAll().stream()
-                .filter(Member::isActive)
-                .toList();
+        return memberDirectory.getActiveMembers();
+    }
+
+    /**
+     * Get the number of active members
+     */
+    public int getActiveMemberCount() {
+        return memberDirectory.getActiveMemberCount();
     }
 
     /**
      * Get member by ID
      */
     public Member getMemberById(Long id) {
-        return memberRepository.findById(id)
+        return memberDirectory.findById(id)
                 .orElseThrow(() -> new RuntimeException("Member not found with id: " + id));
     }
 
@@ -51,7 +67,7 @@ public class MemberService {
      * Get member by name
      */
     public Member getMemberByName(String name) {
-        return memberRepository.findByName(name)
+        return memberDirectory.findByName(name)
                 .orElseThrow(() -> new RuntimeException("Member not found with name: " + name));
     }
 
@@ -59,7 +75,7 @@ public class MemberService {
      * Check if member exists by name
      */
     public boolean memberExistsByName(String name) {
-        return memberRepository.existsByName(name);
+        return memberDirectory.findByName(name).isPresent();
     }
 
     /**
@@ -79,6 +95,7 @@ public class MemberService {
         
         Member createdMember = memberRepository.save(member);
         memberQueueService.addMemberToQueue(createdMember.getId());
+        publishMemberChange();
         return createdMember;
     }
 
@@ -88,7 +105,7 @@ public class MemberService {
      */
     @Transactional
     public Member updateMemberName(Long id, String newName) {
-        Member member = getMemberById(id);
+        Member member = loadMember(id);
 
         // Check if name is being changed and if new name already exists
         if (!member.getName().equals(newName) &&
@@ -98,7 +115,11 @@ public class MemberService {
 
         member.setName(newName);
 
-        return memberRepository.save(member);
+        Member savedMember = memberRepository.save(member);
+        // Owner names are searchable, so the member's books need new index entries after commit
+        eventPublisher.publishEvent(new SearchableBookChangedEvent(SearchableBookChangedEvent.Scope.OWNER, id));
+        publishMemberChange();
+        return savedMember;
     }
     
     /**
@@ -106,7 +127,7 @@ public class MemberService {
      */
     @Transactional
     public String resetPassword(Long id) {
-        Member member = getMemberById(id);
+        Member member = loadMember(id);
         
         // Generate a random password
         String newPassword = generateRandomPassword();
@@ -114,6 +135,7 @@ public class MemberService {
         // Update password hash
         member.setPasswordHash(passwordEncoder.encode(newPassword));
         memberRepository.save(member);
+        publishMemberChange();
         
         return newPassword;
     }
@@ -138,7 +160,7 @@ public class MemberService {
 
     @Transactional
     public Member toggleStatus(Long id) {
-        Member member = getMemberById(id);
+        Member member = loadMember(id);
 
         boolean nowActive = !member.isActive();
 
@@ -151,6 +173,7 @@ public class MemberService {
         else
             memberQueueService.removeMemberFromQueue(id);
 
+        publishMemberChange();
         return updatedMember;
     }
 
@@ -161,7 +184,7 @@ public class MemberService {
      */
     @Transactional
     public String deleteMember(Long id) {
-        Member member = getMemberById(id);
+        Member member = loadMember(id);
         String memberName = member.getName();
 
         // Remove from queue if member is in queue
@@ -169,7 +192,17 @@ public class MemberService {
 
         memberRepository.deleteById(id);
 
+        publishMemberChange();
         return memberName;
     }
 
+    private Member loadMember(Long id) {
+        return memberRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Member not found with id: " + id));
+    }
+
+    private void publishMemberChange() {
+        eventPublisher.publishEvent(new ClubDataChangedEvent(ClubDataChangedEvent.Source.MEMBER));
+    }
+
 }
\ No newline at end of file
@@ -3,7 +3,6 @@ package ca.yarbond.bookclub.service;
 import ca.yarbond.bookclub.model.Member;
 import ca.yarbond.bookclub.repository.MemberRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -24,10 +23,6 @@ public class MemberUserDetailsService implements UserDetailsService {
         Member member = memberRepository.findByName(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
 
-        return User.builder()
-                .username(member.getName())
-                .password(member.getPasswordHash())
-                .roles(member.getRole().name())
-                .build();
+        return MemberPrincipal.from(member);
     }
 }
\ No newline at end of file
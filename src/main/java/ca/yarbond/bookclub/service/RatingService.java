@@ -1,17 +1,22 @@
 package ca.yarbond.bookclub.service;
 
+import ca.yarbond.bookclub.dto.RatingSummary;
+import ca.yarbond.bookclub.event.ClubDataChangedEvent;
 import ca.yarbond.bookclub.model.Book;
+import ca.yarbond.bookclub.model.BookRatingSummary;
 import ca.yarbond.bookclub.model.Member;
 import ca.yarbond.bookclub.model.Rating;
+import ca.yarbond.bookclub.repository.BookRatingSummaryRepository;
 import ca.yarbond.bookclub.repository.BookRepository;
 import ca.yarbond.bookclub.repository.MemberRepository;
 import ca.yarbond.bookclub.repository.RatingRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -23,15 +28,21 @@ public class RatingService {
     private final RatingRepository ratingRepository;
     private final BookRepository bookRepository;
     private final MemberRepository memberRepository;
+    private final BookRatingSummaryRepository ratingSummaryRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public RatingService(
             RatingRepository ratingRepository,
             BookRepository bookRepository,
-            MemberRepository memberRepository) {
+            MemberRepository memberRepository,
+            BookRatingSummaryRepository ratingSummaryRepository,
+            ApplicationEventPublisher eventPublisher) {
         this.ratingRepository = ratingRepository;
         this.bookRepository = bookRepository;
         this.memberRepository = memberRepository;
+        this.ratingSummaryRepository = ratingSummaryRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<Rating> getRatingsByBookId(Long bookId) {
@@ -56,20 +67,24 @@ public class RatingService {
         Book book = bookRepository.findById(bookId)
                 .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
 
-        // Get current authenticated user
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        Member member = memberRepository.findByName(auth.getName())
-                .orElseThrow(() -> new RuntimeException("Member not found for logged in user: " + auth.getName()));
+        // Current authenticated member; the reference needs no query
+        Member member = memberRepository.getReferenceById(MemberPrincipal.currentMemberId());
 
         // Check if rating already exists
         Optional<Rating> existingRating = ratingRepository.findByBookIdAndMemberId(bookId, member.getId());
 
         if (existingRating.isPresent()) {
             Rating rating = existingRating.get();
+            // Swap the old scores for the new ones in the summary
+            updateSummary(bookId, 0,
+                    rating.getReadabilityRating(), readabilityRating,
+                    rating.getContentRating(), contentRating);
             rating.setReadabilityRating(readabilityRating);
             rating.setContentRating(contentRating);
             rating.setComments(comments);
-            return ratingRepository.save(rating);
+            Rating savedRating = ratingRepository.save(rating);
+            publishRatingChange();
+            return savedRating;
         } else {
             Rating rating = new Rating();
             rating.setBook(book);
@@ -77,49 +92,118 @@ public class RatingService {
             rating.setReadabilityRating(readabilityRating);
             rating.setContentRating(contentRating);
             rating.setComments(comments);
-            return ratingRepository.save(rating);
+            Rating savedRating = ratingRepository.save(rating);
+            updateSummary(bookId, 1, null, readabilityRating, null, contentRating);
+            publishRatingChange();
+            return savedRating;
         }
     }
 
     // Removed markAsDidNotRead method as it's no longer needed
 
+    @Transactional
     public void deleteRating(Long id) {
-        ratingRepository.deleteById(id);
+        Rating rating = getRatingById(id);
+        ratingRepository.delete(rating);
+        updateSummary(rating.getBook().getId(), -1,
+                rating.getReadabilityRating(), null,
+                rating.getContentRating(), null);
+        publishRatingChange();
     }
 
     /**
-     * Gets average ratings for a book
-     * Returns a map with keys "readability" and "content"
+     * Recomputes all rating summaries from the ratings table.
+     * Only needed if summaries drift from the ratings, e.g. after editing ratings by hand.
      */
-    public Map<String, Double> getAverageRatings(Long bookId) {
-        List<Rating> ratings = ratingRepository.findByBookId(bookId);
+    @Transactional
+    public void rebuildRatingSummaries() {
+        ratingSummaryRepository.deleteAllSummaries();
+        ratingSummaryRepository.insertSummariesFromRatings();
+        publishRatingChange();
+    }
+
+    private void publishRatingChange() {
+        eventPublisher.publishEvent(new ClubDataChangedEvent(ClubDataChangedEvent.Source.RATING));
+    }
 
-        if (ratings.isEmpty()) {
-            return Map.of("readability", 0.0, "content", 0.0);
+    /**
+     * Applies the difference between old and new scores to a book's rating summary.
+     * A null score counts as 0, as in the averages.
+     */
+    private void updateSummary(Long bookId, int countDelta,
+                               Integer oldReadability, Integer newReadability,
+                               Integer oldContent, Integer newContent) {
+        long oldR = oldReadability != null ? oldReadability : 0;
+        long newR = newReadability != null ? newReadability : 0;
+        long oldC = oldContent != null ? oldContent : 0;
+        long newC = newContent != null ? newContent : 0;
+
+        if (applySummaryDelta(bookId, countDelta, oldR, newR, oldC, newC) > 0) {
+            return;
         }
 
-        double avgReadability = ratings.stream()
-                .mapToInt(r -> r.getReadabilityRating() != null ? r.getReadabilityRating() : 0)
-                .average()
-                .orElse(0);
+        // First rating of the book. The empty summary is committed on its own; if this
+        // transaction fails later it stays empty, which reads the same as no summary.
+        try {
+            ratingSummaryRepository.insertEmpty(bookId);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent first rating created it first
+        }
+        if (applySummaryDelta(bookId, countDelta, oldR, newR, oldC, newC) == 0) {
+            throw new RuntimeException("Could not update rating summary for book " + bookId);
+        }
+    }
 
-        double avgContent = ratings.stream()
-                .mapToInt(r -> r.getContentRating() != null ? r.getContentRating() : 0)
-                .average()
-                .orElse(0);
+    private int applySummaryDelta(Long bookId, int countDelta, long oldR, long newR, long oldC, long newC) {
+        return ratingSummaryRepository.applyDelta(bookId, countDelta,
+                newR - oldR, newR * newR - oldR * oldR,
+                newC - oldC, newC * newC - oldC * oldC);
+    }
 
-        return Map.of("readability", avgReadability, "content", avgContent);
+    /**
+     * Gets average ratings for a book
+     * Returns a map with keys "readability" and "content"
+     */
+    public Map<String, Double> getAverageRatings(Long bookId) {
+        return ratingSummaryRepository.findById(bookId)
+                .filter(summary -> summary.getRatingCount() > 0)
+                .map(summary -> toAverageMap(toRatingSummary(summary)))
+                .orElse(Map.of("readability", 0.0, "content", 0.0));
     }
 
     /**
-     * Gets average ratings for multiple books
-     * Returns a map of bookId -> {readability, content}
+     * Gets average ratings for multiple books from their rating summaries
+     * Returns a map of bookId -> {readability, content}; books without ratings are left out
      */
-    public Map<Long, Map<String, Double>> getAverageRatingsForBooks(List<Long> bookIds) {
-        return bookIds.stream()
+    public Map<Long, Map<String, Double>> getAverageRatingsForBooks(Collection<Long> bookIds) {
+        return getRatingSummaries(bookIds).values().stream()
                 .collect(Collectors.toMap(
-                        bookId -> bookId,
-                        this::getAverageRatings
+                        RatingSummary::getBookId,
+                        this::toAverageMap
                 ));
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets rating count and averages for multiple books from their rating summaries
+     * Returns a map of bookId -> summary; books without ratings are left out
+     */
+    public Map<Long, RatingSummary> getRatingSummaries(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return Map.of();
+        }
+
+        return ratingSummaryRepository.findByBookIdIn(bookIds).stream()
+                .filter(summary -> summary.getRatingCount() > 0)
+                .map(this::toRatingSummary)
+                .collect(Collectors.toMap(RatingSummary::getBookId, summary -> summary));
+    }
+
+    private RatingSummary toRatingSummary(BookRatingSummary summary) {
+        return new RatingSummary(summary.getBookId(), (long) summary.getRatingCount(),
+                summary.getAverageReadability(), summary.getAverageContent());
+    }
+
+    private Map<String, Double> toAverageMap(RatingSummary summary) {
+        return Map.of("readability", summary.getAverageReadability(), "content", summary.getAverageContent());
+    }
+}
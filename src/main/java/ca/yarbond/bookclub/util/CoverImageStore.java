@@ -0,0 +1,103 @@
+package ca.yarbond.bookclub.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Writes cover images under names derived from their content (the first 128 bits of the SHA-256),
+ * so a cover file never changes once written and a new cover always gets a new name.
+ * That lets browsers cache covers as immutable and use the name as a strong ETag.
+ */
+@Component
+public class CoverImageStore {
+
+    // Guards against zip bombs and runaway downloads; real covers are a few hundred KB
+    public static final long MAX_COVER_SIZE = 20 * 1024 * 1024;
+
+    private static final int FINGERPRINT_LENGTH = 32;
+
+    private final Path coversStorageLocation;
+
+    public CoverImageStore(@Value("${app.storage.covers-location}") String coversStorageLocation) {
+        this.coversStorageLocation = Paths.get(coversStorageLocation).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Stores image bytes as they are, hashing them while they are copied
+     *
+     * @param in Image content, read to the end but not closed
+     * @param extension File extension matching the content, e.g. jpg
+     * @return The cover file name
+     */
+    public String store(InputStream in, String extension) throws IOException {
+        Files.createDirectories(coversStorageLocation);
+        Path temp = Files.createTempFile(coversStorageLocation, "cover-", ".tmp");
+        try {
+            MessageDigest digest = sha256Digest();
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                copyLimited(new DigestInputStream(in, digest), out);
+            }
+
+            String filename = HexFormat.of().formatHex(digest.digest()).substring(0, FINGERPRINT_LENGTH)
+                    + "." + extension;
+            Path target = coversStorageLocation.resolve(filename);
+            if (!Files.exists(target)) {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return filename;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Stores a decoded image as JPEG
+     *
+     * @return The cover file name, or null if the image can't be written as JPEG
+     */
+    public String storeAsJpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        if (!ImageIO.write(image, "jpg", encoded)) {
+            return null;
+        }
+        return store(new ByteArrayInputStream(encoded.toByteArray()), "jpg");
+    }
+
+    private void copyLimited(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[8192];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            total += read;
+            if (total > MAX_COVER_SIZE) {
+                throw new IOException("Cover image exceeds " + MAX_COVER_SIZE + " bytes");
+            }
+            out.write(buffer, 0, read);
+        }
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
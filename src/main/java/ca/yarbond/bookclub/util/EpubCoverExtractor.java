@@ -1,68 +1,220 @@
 package ca.yarbond.bookclub.util;
 
-import nl.siegmann.epublib.domain.Book;
-import nl.siegmann.epublib.epub.EpubReader;
-import org.springframework.beans.factory.annotation.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import org.springframework.web.multipart.MultipartFile;
 
 import javax.imageio.ImageIO;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.UUID;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
+/**
+ * Extracts the cover image of an EPUB without reading the whole book: the EPUB is opened as a zip
+ * through its central directory, only META-INF/container.xml and the OPF package document are
+ * parsed (streaming), and the single cover entry is streamed to disk. JPEG, PNG and GIF covers are
+ * stored as they are; other formats are re-encoded to JPEG. Covers are named by content through
+ * {@link CoverImageStore}.
+ */
 @Component
 public class EpubCoverExtractor {
 
-    private final String coverStoragePath;
+    private static final Logger logger = LoggerFactory.getLogger(EpubCoverExtractor.class);
 
-    public EpubCoverExtractor(@Value("${app.storage.covers-location}") String coverStoragePath) {
-        this.coverStoragePath = coverStoragePath;
+    private static final String CONTAINER_PATH = "META-INF/container.xml";
+
+    // Covers served as they are, by media type
+    private static final Map<String, String> STORED_AS_IS = Map.of(
+            "image/jpeg", "jpg",
+            "image/png", "png",
+            "image/gif", "gif");
+
+    private final CoverImageStore coverImageStore;
+    private final XMLInputFactory xmlInputFactory;
+
+    @Autowired
+    public EpubCoverExtractor(CoverImageStore coverImageStore) {
+        this.coverImageStore = coverImageStore;
+        this.xmlInputFactory = XMLInputFactory.newFactory();
+        this.xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        this.xmlInputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
     }
 
     /**
      * Extract cover image from EPUB file and save it to the storage directory
      *
-     * @param epubFile The uploaded EPUB file
-     * @return Path to the extracted cover image, or null if extraction failed
+     * @param epubFile The stored EPUB file
+     * @return File name of the extracted cover image, or null if there is none or extraction failed
      */
-    public String extractCover(MultipartFile epubFile) {
-        try {
-            EpubReader epubReader = new EpubReader();
+    public String extractCover(Path epubFile) {
+        try (ZipFile zip = new ZipFile(epubFile.toFile(), StandardCharsets.UTF_8)) {
+            String opfPath = findPackageDocument(zip);
+            if (opfPath == null) {
+                return null;
+            }
 
-            try (InputStream inputStream = epubFile.getInputStream()) {
-                Book book = epubReader.readEpub(inputStream);
+            ManifestItem cover = findCoverItem(zip, opfPath);
+            if (cover == null) {
+                return null;
+            }
 
-                // Check if book has a cover
-                if (book.getCoverImage() == null) {
-                    return null;
-                }
+            ZipEntry entry = zip.getEntry(resolveHref(opfPath, cover.href));
+            if (entry == null) {
+                logger.warn("EPUB {} lists cover {} but does not contain it", epubFile.getFileName(), cover.href);
+                return null;
+            }
+            if (entry.getSize() > CoverImageStore.MAX_COVER_SIZE) {
+                logger.warn("Cover of EPUB {} is too large ({} bytes)", epubFile.getFileName(), entry.getSize());
+                return null;
+            }
 
-                // Convert cover data to image
-                byte[] coverData = book.getCoverImage().getData();
-                BufferedImage coverImage = ImageIO.read(new ByteArrayInputStream(coverData));
+            String extension = STORED_AS_IS.get(cover.mediaType);
+            if (extension != null) {
+                try (InputStream in = zip.getInputStream(entry)) {
+                    return coverImageStore.store(in, extension);
+                }
+            }
 
-                // Generate unique filename
-                String filename = UUID.randomUUID() + ".jpg";
-                Path coverPath = Paths.get(coverStoragePath, filename);
-                File outputFile = coverPath.toFile();
+            // Any other format is decoded and stored as JPEG
+            BufferedImage coverImage;
+            try (InputStream in = zip.getInputStream(entry)) {
+                coverImage = ImageIO.read(in);
+            }
+            if (coverImage == null) {
+                return null;
+            }
+            return coverImageStore.storeAsJpeg(coverImage);
+        } catch (IOException | XMLStreamException e) {
+            logger.warn("Failed to extract cover image from {}: {}", epubFile.getFileName(), e.getMessage());
+            return null;
+        }
+    }
 
-                // Ensure directory exists
-                outputFile.getParentFile().mkdirs();
+    /**
+     * Path of the OPF package document from META-INF/container.xml
+     */
+    private String findPackageDocument(ZipFile zip) throws IOException, XMLStreamException {
+        ZipEntry container = zip.getEntry(CONTAINER_PATH);
+        if (container == null) {
+            return null;
+        }
+        try (InputStream in = zip.getInputStream(container)) {
+            XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(in);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT
+                            && "rootfile".equals(localName(reader))) {
+                        return reader.getAttributeValue(null, "full-path");
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        return null;
+    }
 
-                // Save image to file
-                ImageIO.write(coverImage, "jpg", outputFile);
+    /**
+     * Finds the cover in the OPF manifest: the EPUB 3 cover-image property first, then the
+     * EPUB 2 &lt;meta name="cover"&gt;, then an image whose id or file name says "cover"
+     */
+    private ManifestItem findCoverItem(ZipFile zip, String opfPath) throws IOException, XMLStreamException {
+        ZipEntry opf = zip.getEntry(opfPath);
+        if (opf == null) {
+            return null;
+        }
 
-                return filename;
+        Map<String, ManifestItem> images = new HashMap<>();
+        String coverId = null;
+        ManifestItem namedCover = null;
+        try (InputStream in = zip.getInputStream(opf)) {
+            XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(in);
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+                    String element = localName(reader);
+                    if ("meta".equals(element) && "cover".equals(reader.getAttributeValue(null, "name"))) {
+                        coverId = reader.getAttributeValue(null, "content");
+                    } else if ("item".equals(element)) {
+                        String mediaType = reader.getAttributeValue(null, "media-type");
+                        if (mediaType == null || !mediaType.startsWith("image/")) {
+                            continue;
+                        }
+                        ManifestItem item = new ManifestItem(reader.getAttributeValue(null, "id"),
+                                reader.getAttributeValue(null, "href"), mediaType);
+                        if (item.href == null) {
+                            continue;
+                        }
+                        String properties = reader.getAttributeValue(null, "properties");
+                        if (properties != null && properties.contains("cover-image")) {
+                            return item;
+                        }
+                        if (item.id != null) {
+                            images.put(item.id, item);
+                        }
+                        if (namedCover == null && isNamedCover(item)) {
+                            namedCover = item;
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
             }
-        } catch (IOException e) {
-            System.err.println("Failed to extract cover image: " + e.getMessage());
-            return null;
+        }
+
+        if (coverId != null && images.containsKey(coverId)) {
+            return images.get(coverId);
+        }
+        return namedCover;
+    }
+
+    private boolean isNamedCover(ManifestItem item) {
+        return (item.id != null && item.id.toLowerCase().contains("cover"))
+                || item.href.toLowerCase().contains("cover");
+    }
+
+    /**
+     * Zip entry name of a manifest href, which is relative to the OPF and may be percent-encoded
+     */
+    private String resolveHref(String opfPath, String href) {
+        String decoded = URLDecoder.decode(href.replace("+", "%2B"), StandardCharsets.UTF_8);
+        int lastSlash = opfPath.lastIndexOf('/');
+        String base = lastSlash >= 0 ? opfPath.substring(0, lastSlash + 1) : "";
+        return Paths.get(base + decoded).normalize().toString().replace('\\', '/');
+    }
+
+    private String localName(XMLStreamReader reader) {
+        // Namespace handling is off, so prefixed names such as opf:meta come through whole
+        String name = reader.getLocalName();
+        int colon = name.indexOf(':');
+        return colon >= 0 ? name.substring(colon + 1) : name;
+    }
+
+    private static final class ManifestItem {
+        private final String id;
+        private final String href;
+        private final String mediaType;
+
+        private ManifestItem(String id, String href, String mediaType) {
+            this.id = id;
+            this.href = href;
+            this.mediaType = mediaType;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,190 @@
+package ca.yarbond.bookclub.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small LRU cache of open read-only file channels, so repeated downloads of the same file
+ * don't pay an open/close per request. Channels are only read with positional reads,
+ * which lets concurrent downloads share one channel.
+ * Entries are keyed by path and modification time, so a replaced file gets a fresh channel;
+ * an evicted channel is closed once its last user releases it. A channel closed underneath
+ * its users (an interrupted read closes it for everyone) is dropped rather than handed out again.
+ */
+@Component
+public class OpenFileCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpenFileCache.class);
+
+    private final int maxOpenFiles;
+
+    // Access-ordered, eldest (least recently used) first
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    public OpenFileCache(@Value("${app.download.open-file-cache-size:32}") int maxOpenFiles) {
+        this.maxOpenFiles = maxOpenFiles;
+    }
+
+    /**
+     * Opens a file through the cache. The handle must be closed, which releases the channel
+     * back to the cache rather than closing it.
+     *
+     * @param path File to read
+     * @param lastModified The file's modification time in epoch milliseconds
+     */
+    public Handle open(Path path, long lastModified) throws IOException {
+        Key key = new Key(path.toAbsolutePath().normalize(), lastModified);
+        synchronized (this) {
+            Entry entry = openEntry(key);
+            if (entry != null) {
+                entry.users++;
+                return new Handle(entry);
+            }
+        }
+
+        // Opened outside the lock; another request may have opened the same file meanwhile
+        FileChannel channel = FileChannel.open(key.path(), StandardOpenOption.READ);
+        synchronized (this) {
+            Entry entry = openEntry(key);
+            if (entry != null) {
+                closeQuietly(channel);
+            } else {
+                entry = new Entry(channel);
+                entries.put(key, entry);
+                evictOverflow();
+            }
+            entry.users++;
+            return new Handle(entry);
+        }
+    }
+
+    /**
+     * Drops the cached channels of a file, e.g. before it is deleted
+     */
+    public synchronized void invalidate(Path path) {
+        Path normalized = path.toAbsolutePath().normalize();
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Entry> cached = iterator.next();
+            if (cached.getKey().path().equals(normalized)) {
+                iterator.remove();
+                retire(cached.getValue());
+            }
+        }
+    }
+
+    /**
+     * The cached entry for a key, unless its channel has been closed, in which case it is dropped
+     */
+    private Entry openEntry(Key key) {
+        Entry entry = entries.get(key);
+        if (entry != null && !entry.channel.isOpen()) {
+            entries.remove(key);
+            retire(entry);
+            return null;
+        }
+        return entry;
+    }
+
+    private synchronized void evict(Entry entry) {
+        if (entries.values().remove(entry)) {
+            retire(entry);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void closeAll() {
+        for (Entry entry : entries.values()) {
+            retire(entry);
+        }
+        entries.clear();
+    }
+
+    private void evictOverflow() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxOpenFiles && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            retire(eldest);
+        }
+    }
+
+    private void retire(Entry entry) {
+        entry.evicted = true;
+        if (entry.users == 0) {
+            closeQuietly(entry.channel);
+        }
+    }
+
+    private synchronized void release(Entry entry) {
+        entry.users--;
+        if (entry.evicted && entry.users == 0) {
+            closeQuietly(entry.channel);
+        }
+    }
+
+    private void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Could not close cached file channel", e);
+        }
+    }
+
+    private record Key(Path path, long lastModified) {
+    }
+
+    private static final class Entry {
+        private final FileChannel channel;
+        private int users;
+        private boolean evicted;
+
+        private Entry(FileChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * A borrowed channel; use positional reads or transferTo only, never the channel position
+     */
+    public final class Handle implements AutoCloseable {
+        private final Entry entry;
+        private boolean released;
+
+        private Handle(Entry entry) {
+            this.entry = entry;
+        }
+
+        public FileChannel channel() {
+            return entry.channel;
+        }
+
+        /**
+         * Drops the channel from the cache if it has been closed, so later requests open a new one
+         */
+        public void evictIfClosed() {
+            if (!entry.channel.isOpen()) {
+                evict(entry);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(entry);
+            }
+        }
+    }
+}
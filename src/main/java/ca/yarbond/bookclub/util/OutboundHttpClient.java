@@ -0,0 +1,379 @@
+package ca.yarbond.bookclub.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The one HTTP client for calls to other sites (Google Books, remote cover images), so
+ * connections and TLS sessions are reused across calls. The number of requests in flight is
+ * capped overall and per host, so the open connections are too. Each call, waiting for a free
+ * slot included, must end within the request timeout, and the response within the size limit,
+ * or the exchange is cancelled.
+ * Latency and failures are recorded per host.
+ */
+@Component
+public class OutboundHttpClient {
+
+    // Latency percentiles are computed over this many of the most recent requests per host
+    private static final int LATENCY_WINDOW = 256;
+
+    // Cover URLs can point anywhere, so only this many hosts are tracked; idle ones are dropped first
+    private static final int MAX_TRACKED_HOSTS = 256;
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final Duration acquireTimeout;
+    private final long maxResponseBytes;
+    private final int maxConcurrentRequests;
+    private final int maxConcurrentRequestsPerHost;
+
+    private final Semaphore requestPermits;
+    // Per-host permits and statistics, least recently used first; guarded by this
+    private final LinkedHashMap<String, HostState> hosts = new LinkedHashMap<>(16, 0.75f, true);
+
+    public OutboundHttpClient(
+            @Value("${app.http.connect-timeout:PT5S}") Duration connectTimeout,
+            @Value("${app.http.request-timeout:PT15S}") Duration requestTimeout,
+            @Value("${app.http.acquire-timeout:PT10S}") Duration acquireTimeout,
+            @Value("${app.http.max-response-bytes:5242880}") long maxResponseBytes,
+            @Value("${app.http.max-concurrent-requests:16}") int maxConcurrentRequests,
+            @Value("${app.http.max-concurrent-requests-per-host:4}") int maxConcurrentRequestsPerHost) {
+        this.httpClient = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(connectTimeout)
+                .build();
+        this.requestTimeout = requestTimeout;
+        this.acquireTimeout = acquireTimeout;
+        this.maxResponseBytes = maxResponseBytes;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.maxConcurrentRequestsPerHost = maxConcurrentRequestsPerHost;
+        this.requestPermits = new Semaphore(maxConcurrentRequests, true);
+    }
+
+    /**
+     * Reads a response: status, headers and the complete body
+     */
+    @FunctionalInterface
+    public interface BodyReader<T> {
+        T read(int statusCode, HttpHeaders headers, InputStream body) throws IOException;
+    }
+
+    /**
+     * Sends a GET request and hands the response to the reader once the whole body has arrived.
+     * The request holds its concurrency permits, and counts towards latency, until the reader returns.
+     * The request timeout is one deadline for the whole call: time spent waiting for permits
+     * (each wait also capped by the acquire timeout) is taken from the time left for the response.
+     *
+     * @param uri http or https URL
+     * @param accept Accept header value
+     * @param reader Reads the response; its result is returned
+     * @throws IOException On connection failures, oversized responses, no complete response
+     *                     before the deadline, or when the host is too busy to take the request
+     *                     within the acquire timeout or before the deadline
+     */
+    public <T> T get(URI uri, String accept, BodyReader<T> reader) throws IOException, InterruptedException {
+        String scheme = uri.getScheme() != null ? uri.getScheme().toLowerCase() : "";
+        if ((!scheme.equals("http") && !scheme.equals("https")) || uri.getHost() == null) {
+            throw new IOException("Unsupported URL: " + uri);
+        }
+        String host = uri.getHost().toLowerCase();
+        long deadline = System.nanoTime() + requestTimeout.toNanos();
+        HostState state = acquireHostState(host);
+        try {
+            if (!requestPermits.tryAcquire(permitWaitNanos(deadline), TimeUnit.NANOSECONDS)) {
+                state.stats.recordRejected();
+                throw new IOException("Too many outbound requests in flight");
+            }
+            try {
+                if (!state.permits.tryAcquire(permitWaitNanos(deadline), TimeUnit.NANOSECONDS)) {
+                    state.stats.recordRejected();
+                    throw new IOException("Too many requests in flight to " + host);
+                }
+                try {
+                    return send(uri, accept, reader, state.stats, deadline);
+                } finally {
+                    state.permits.release();
+                }
+            } finally {
+                requestPermits.release();
+            }
+        } finally {
+            releaseHostState(state);
+        }
+    }
+
+    private long permitWaitNanos(long deadline) {
+        return Math.min(acquireTimeout.toNanos(), deadline - System.nanoTime());
+    }
+
+    private <T> T send(URI uri, String accept, BodyReader<T> reader, HostStats stats, long deadline)
+            throws IOException, InterruptedException {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            throw new HttpTimeoutException("No time left to send a request to " + uri.getHost()
+                    + " within " + requestTimeout);
+        }
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(uri)
+                .timeout(Duration.ofNanos(remaining))
+                .header("Accept", accept)
+                .GET()
+                .build();
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            CompletableFuture<HttpResponse<byte[]>> exchange = httpClient.sendAsync(request,
+                    info -> new LimitedBodySubscriber(maxResponseBytes,
+                            info.headers().firstValueAsLong("Content-Length").orElse(-1)));
+            HttpResponse<byte[]> response;
+            try {
+                // The request timeout only covers the headers; this wait covers the body too
+                response = exchange.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                exchange.cancel(true);
+                throw new HttpTimeoutException("No complete response from " + uri.getHost()
+                        + " within " + requestTimeout);
+            } catch (InterruptedException e) {
+                exchange.cancel(true);
+                throw e;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException cause) {
+                    throw cause;
+                }
+                throw new IOException("Request to " + uri.getHost() + " failed", e.getCause());
+            }
+
+            T result = reader.read(response.statusCode(), response.headers(),
+                    new ByteArrayInputStream(response.body()));
+            failed = response.statusCode() >= 400;
+            return result;
+        } finally {
+            stats.record(System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * The host's permits and statistics, kept from eviction until released
+     */
+    private synchronized HostState acquireHostState(String host) {
+        HostState state = hosts.get(host);
+        if (state == null) {
+            evictIdleHosts();
+            state = new HostState(maxConcurrentRequestsPerHost);
+            hosts.put(host, state);
+        }
+        state.users++;
+        return state;
+    }
+
+    private synchronized void releaseHostState(HostState state) {
+        state.users--;
+    }
+
+    /**
+     * Makes room for one more host by dropping the least recently used hosts with no request in flight
+     */
+    private void evictIdleHosts() {
+        Iterator<HostState> eldest = hosts.values().iterator();
+        while (hosts.size() >= MAX_TRACKED_HOSTS && eldest.hasNext()) {
+            if (eldest.next().users == 0) {
+                eldest.remove();
+            }
+        }
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public int getRequestsInFlight() {
+        return maxConcurrentRequests - requestPermits.availablePermits();
+    }
+
+    /**
+     * Statistics by host name, sorted by host, for the most recently used hosts
+     */
+    public synchronized Map<String, HostStats> getHostStats() {
+        Map<String, HostStats> stats = new TreeMap<>();
+        // Iterating an access-ordered map doesn't reorder it
+        hosts.forEach((host, state) -> stats.put(host, state.stats));
+        return stats;
+    }
+
+    private static final class HostState {
+        private final Semaphore permits;
+        private final HostStats stats = new HostStats();
+        // Requests holding this state; guarded by the client
+        private int users;
+
+        private HostState(int maxConcurrentRequests) {
+            this.permits = new Semaphore(maxConcurrentRequests, true);
+        }
+    }
+
+    /**
+     * Request counts and latency for one host. Requests failing with an exception or an error
+     * status count as failed; rejected requests never got a concurrency permit.
+     */
+    public static final class HostStats {
+        private long requests;
+        private long failures;
+        private long rejected;
+        private long totalNanos;
+        private long maxNanos;
+        private final long[] recentNanos = new long[LATENCY_WINDOW];
+        private int recentNext;
+        private int recentCount;
+
+        private synchronized void record(long nanos, boolean failed) {
+            requests++;
+            if (failed) {
+                failures++;
+            }
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            recentNanos[recentNext] = nanos;
+            recentNext = (recentNext + 1) % LATENCY_WINDOW;
+            recentCount = Math.min(recentCount + 1, LATENCY_WINDOW);
+        }
+
+        private synchronized void recordRejected() {
+            rejected++;
+        }
+
+        public synchronized long getRequests() {
+            return requests;
+        }
+
+        public synchronized long getFailures() {
+            return failures;
+        }
+
+        public synchronized long getRejected() {
+            return rejected;
+        }
+
+        public synchronized double getMeanMillis() {
+            return requests == 0 ? 0.0 : totalNanos / 1e6 / requests;
+        }
+
+        public synchronized double getMaxMillis() {
+            return maxNanos / 1e6;
+        }
+
+        /**
+         * Latency percentile over the most recent requests
+         *
+         * @param percentile Between 0 and 100
+         */
+        public synchronized double getRecentPercentileMillis(double percentile) {
+            int count = recentCount;
+            if (count == 0) {
+                return 0.0;
+            }
+            long[] sorted = Arrays.copyOf(recentNanos, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * count) - 1;
+            return sorted[Math.max(0, Math.min(index, count - 1))] / 1e6;
+        }
+    }
+
+    /**
+     * Collects the body in memory and cancels the exchange once it passes the limit, so a
+     * response without a Content-Length can't grow without bound
+     */
+    private static final class LimitedBodySubscriber implements HttpResponse.BodySubscriber<byte[]> {
+        private final CompletableFuture<byte[]> body = new CompletableFuture<>();
+        private final List<ByteBuffer> received = new ArrayList<>();
+        private final long limit;
+        private final long declaredLength;
+        private Flow.Subscription subscription;
+        private long total;
+
+        private LimitedBodySubscriber(long limit, long declaredLength) {
+            this.limit = limit;
+            this.declaredLength = declaredLength;
+        }
+
+        @Override
+        public CompletionStage<byte[]> getBody() {
+            return body;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (declaredLength > limit) {
+                subscription.cancel();
+                body.completeExceptionally(new IOException("Response is too large (" + declaredLength + " bytes)"));
+                return;
+            }
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            if (body.isDone()) {
+                return;
+            }
+            for (ByteBuffer buffer : buffers) {
+                total += buffer.remaining();
+                received.add(buffer);
+            }
+            if (total > limit) {
+                subscription.cancel();
+                received.clear();
+                body.completeExceptionally(new IOException("Response exceeds " + limit + " bytes"));
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            received.clear();
+            body.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (body.isDone()) {
+                return;
+            }
+            byte[] bytes = new byte[(int) total];
+            int offset = 0;
+            for (ByteBuffer buffer : received) {
+                int length = buffer.remaining();
+                buffer.get(bytes, offset, length);
+                offset += length;
+            }
+            received.clear();
+            body.complete(bytes);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+-- Book files become content-addressed: each distinct content is stored once as <sha256>.<ext>
+-- under aa/bb/ shard directories and shared by every book_files row pointing at it (files moved by V11)
+CREATE TABLE IF NOT EXISTS stored_files (
+    stored_name VARCHAR(255) PRIMARY KEY,
+    sha256 VARCHAR(64) NOT NULL,
+    size BIGINT NOT NULL,
+    ref_count INT NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+-- The readable title-author name, now only sent as the download file name
+ALTER TABLE book_files ADD COLUMN IF NOT EXISTS display_name VARCHAR(255);
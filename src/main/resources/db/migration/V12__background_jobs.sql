@@ -0,0 +1,20 @@
+-- Work done after a request returns (cover extraction and download, metadata lookup),
+-- persisted so it survives restarts and can be retried
+CREATE TABLE IF NOT EXISTS background_jobs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    type VARCHAR(40) NOT NULL,
+    book_id BIGINT NOT NULL,
+    payload VARCHAR(2000),
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    max_attempts INT NOT NULL,
+    next_run_at TIMESTAMP NOT NULL,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (book_id) REFERENCES books(id) ON DELETE CASCADE
+);
+
+-- The dispatcher polls for due pending jobs
+CREATE INDEX IF NOT EXISTS idx_background_jobs_status_next_run ON background_jobs(status, next_run_at);
+CREATE INDEX IF NOT EXISTS idx_background_jobs_book_id ON background_jobs(book_id);
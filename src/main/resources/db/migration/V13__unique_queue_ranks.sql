@@ -0,0 +1,20 @@
+-- Queue order relies on every member having a distinct rank. Spread the ranks out again in
+-- their current order (ties broken by id), keeping the same member at the head
+ALTER TABLE member_queue ADD COLUMN new_rank BIGINT;
+
+MERGE INTO member_queue q
+USING (SELECT id, (ROW_NUMBER() OVER (ORDER BY queue_rank, id) - 1) * 1024 AS new_rank FROM member_queue) r
+ON q.id = r.id
+WHEN MATCHED THEN UPDATE SET q.new_rank = r.new_rank;
+
+UPDATE member_queue_state s SET head_rank = COALESCE(
+    (SELECT MIN(q.new_rank) FROM member_queue q WHERE q.queue_rank >= s.head_rank),
+    (SELECT MIN(q.new_rank) FROM member_queue q),
+    0);
+
+UPDATE member_queue SET queue_rank = new_rank;
+ALTER TABLE member_queue DROP COLUMN new_rank;
+
+-- Two members can no longer share a rank
+DROP INDEX IF EXISTS idx_member_queue_rank;
+CREATE UNIQUE INDEX idx_member_queue_rank ON member_queue(queue_rank);
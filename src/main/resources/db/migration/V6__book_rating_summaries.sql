@@ -0,0 +1,22 @@
+-- Per-book rating aggregates, maintained by RatingService on every rating write
+CREATE TABLE IF NOT EXISTS book_rating_summaries (
+    book_id BIGINT PRIMARY KEY,
+    rating_count INT NOT NULL DEFAULT 0,
+    readability_sum BIGINT NOT NULL DEFAULT 0,
+    readability_sum_of_squares BIGINT NOT NULL DEFAULT 0,
+    content_sum BIGINT NOT NULL DEFAULT 0,
+    content_sum_of_squares BIGINT NOT NULL DEFAULT 0,
+    FOREIGN KEY (book_id) REFERENCES books(id) ON DELETE CASCADE
+);
+
+-- Build summaries for existing ratings (missing scores count as 0)
+INSERT INTO book_rating_summaries (book_id, rating_count, readability_sum, readability_sum_of_squares,
+                                   content_sum, content_sum_of_squares)
+SELECT book_id,
+       COUNT(*),
+       SUM(COALESCE(readability_rating, 0)),
+       SUM(COALESCE(readability_rating, 0) * COALESCE(readability_rating, 0)),
+       SUM(COALESCE(content_rating, 0)),
+       SUM(COALESCE(content_rating, 0) * COALESCE(content_rating, 0))
+FROM ratings
+GROUP BY book_id;
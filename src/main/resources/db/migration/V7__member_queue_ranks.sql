@@ -0,0 +1,18 @@
+-- Queue order becomes sparse ranks read as a circular list starting at a persisted head,
+-- so rotating the queue updates one row and moving a member updates only that member
+ALTER TABLE member_queue ADD COLUMN queue_rank BIGINT;
+UPDATE member_queue SET queue_rank = position * 1024;
+ALTER TABLE member_queue ALTER COLUMN queue_rank SET NOT NULL;
+
+DROP INDEX IF EXISTS idx_member_queue_position;
+ALTER TABLE member_queue DROP COLUMN position;
+CREATE INDEX IF NOT EXISTS idx_member_queue_rank ON member_queue(queue_rank);
+
+-- Single row holding the rank of the member whose turn it is
+CREATE TABLE IF NOT EXISTS member_queue_state (
+    id BIGINT PRIMARY KEY,
+    head_rank BIGINT NOT NULL
+);
+
+INSERT INTO member_queue_state (id, head_rank)
+SELECT 1, COALESCE(MIN(queue_rank), 0) FROM member_queue;
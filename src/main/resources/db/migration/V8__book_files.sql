@@ -0,0 +1,17 @@
+-- One row per stored book file, replacing the books.file_paths JSON map (copied over by V9)
+CREATE TABLE IF NOT EXISTS book_files (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    book_id BIGINT NOT NULL,
+    format VARCHAR(10) NOT NULL,
+    stored_name VARCHAR(255) NOT NULL,
+    size BIGINT,
+    sha256 VARCHAR(64),
+    content_type VARCHAR(100),
+    uploaded_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (book_id) REFERENCES books(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_book_files_book_id ON book_files(book_id);
+-- One file per format and book; also answers "books with an EPUB" without a scan
+CREATE UNIQUE INDEX IF NOT EXISTS idx_book_files_format_book ON book_files(format, book_id);
+CREATE INDEX IF NOT EXISTS idx_book_files_stored_name ON book_files(stored_name);